@@ -143,6 +143,7 @@ forMessage:
 
 foreachMessage: 
     FOREACH OPEN EOL* 
+        (key=identifier EOL* COMMA EOL*)?
         counter=identifier EOL* COMMA EOL* 
         body=expression EOL* 
     CLOSE;
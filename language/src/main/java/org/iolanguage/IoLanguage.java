@@ -67,11 +67,13 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.strings.TruffleString;
 
 import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionValues;
 import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.nodes.root.EvalRootNode;
 import org.iolanguage.parser.IoLanguageNodeVisitor;
 import org.iolanguage.runtime.IoOptions;
 import org.iolanguage.runtime.IoState;
+import org.iolanguage.runtime.SlotLookupCache;
 import org.iolanguage.runtime.interop.IoLanguageView;
 
 @TruffleLanguage.Registration(id = IoLanguage.ID, name = "IO", defaultMimeType = IoLanguage.MIME_TYPE, characterMimeTypes = IoLanguage.MIME_TYPE, contextPolicy = ContextPolicy.SHARED, fileTypeDetectors = FileDetector.class, website = "https://iolanguage.org/")
@@ -84,9 +86,10 @@ public final class IoLanguage extends TruffleLanguage<IoState> {
     public static final String ID = "io";
     public static final String MIME_TYPE = "application/x-io";
 
-    public static final TruffleString.Encoding STRING_ENCODING = TruffleString.Encoding.UTF_16;
+    public static final TruffleString.Encoding STRING_ENCODING = TruffleString.Encoding.UTF_8;
 
     private final Assumption singleContext = Truffle.getRuntime().createAssumption("Single IO context.");
+    private final SlotLookupCache slotLookupCache = new SlotLookupCache();
 
     public IoLanguage() {
         counter++;
@@ -94,7 +97,10 @@ public final class IoLanguage extends TruffleLanguage<IoState> {
 
     @Override
     protected IoState createContext(Env env) {
-        return new IoState(this, env, new ArrayList<>(EXTERNAL_BUILTINS));
+        IoState state = new IoState(this, env, new ArrayList<>(EXTERNAL_BUILTINS));
+        // setting up the context changes shared prototypes without reaching the slot lookup cache
+        slotLookupCache.flush();
+        return state;
     }
 
     @Override
@@ -139,6 +145,10 @@ public final class IoLanguage extends TruffleLanguage<IoState> {
         return singleContext.isValid();
     }
 
+    public SlotLookupCache getSlotLookupCache() {
+        return slotLookupCache;
+    }
+
     @Override
     protected Object getLanguageView(IoState context, Object value) {
         return IoLanguageView.create(value);
@@ -173,11 +183,21 @@ public final class IoLanguage extends TruffleLanguage<IoState> {
         context.initialize();
     }
 
+    @Override
+    protected void finalizeContext(IoState context) {
+        context.reportSlotKinds();
+    }
+
     @Override
     protected void exitContext(IoState context, ExitMode exitMode, int exitCode) {
         context.runShutdownHooks();
     }
 
+    @Override
+    protected void disposeContext(IoState context) {
+        slotLookupCache.clear();
+    }
+
     @TruffleBoundary
     public static TruffleLogger getLogger(Class<?> clazz) {
         return TruffleLogger.getLogger(ID, clazz);
@@ -188,6 +208,12 @@ public final class IoLanguage extends TruffleLanguage<IoState> {
         return TruffleLogger.getLogger(ID, name);
     }
 
+    @Override
+    protected boolean areOptionsCompatible(OptionValues firstOptions, OptionValues newOptions) {
+        // splitting is decided when the method and block roots are parsed
+        return firstOptions.get(IoOptions.IoSplitting).equals(newOptions.get(IoOptions.IoSplitting));
+    }
+
     @Override
     protected OptionDescriptors getOptionDescriptors() {
         OptionDescriptors optionDescriptors = IoOptions.createDescriptors();
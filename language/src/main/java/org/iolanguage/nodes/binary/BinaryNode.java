@@ -46,11 +46,13 @@ package org.iolanguage.nodes.binary;
 import java.math.BigInteger;
 
 import com.oracle.truffle.api.dsl.NodeChild;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
 
 import org.iolanguage.nodes.IoNode;
 
 @NodeChild("leftNode")
 @NodeChild("rightNode")
+@ReportPolymorphism
 public abstract class BinaryNode extends IoNode {
     public static final Number reduceToLongOrDouble(final BigInteger result) {
         if (result.bitLength() > Long.SIZE - 1) {
@@ -57,27 +57,47 @@ import org.iolanguage.nodes.slots.WriteNode;
 import org.iolanguage.runtime.exceptions.BreakException;
 import org.iolanguage.runtime.exceptions.ContinueException;
 
+/**
+ * Iterates any array through its interop iterator. The iterator and the index of the current
+ * execution live in a {@link State} kept in an auxiliary frame slot.
+ */
 public final class ForeachArrayRepeatingNode extends Node implements RepeatingNode {
 
+    @Child
+    private IoNode writeKeyNode;
     @Child
     private IoNode writeValueNode;
     @Child
     private IoNode bodyNode;
 
-    private final Object iterator;
-    private final InteropLibrary interop;
+    @Child
+    private InteropLibrary interop;
+
+    private final int stateSlot;
     private final BranchProfile continueTaken = BranchProfile.create();
     private final BranchProfile breakTaken = BranchProfile.create();
 
-    public ForeachArrayRepeatingNode(Object iterator, InteropLibrary interop, IoNode writeValueNode, IoNode bodyNode) {
-        this.iterator = iterator;
-        this.interop = interop;
+    static final class State {
+        final Object iterator;
+        long index;
+
+        State(Object iterator) {
+            this.iterator = iterator;
+        }
+    }
+
+    public ForeachArrayRepeatingNode(int stateSlot, IoNode writeKeyNode, IoNode writeValueNode, IoNode bodyNode) {
+        this.stateSlot = stateSlot;
+        this.writeKeyNode = writeKeyNode;
+        this.interop = InteropLibrary.getFactory().createDispatched(ForeachNode.LIBRARY_LIMIT);
         this.writeValueNode = writeValueNode;
         this.bodyNode = bodyNode;
     }
 
     @Override
     public boolean executeRepeating(VirtualFrame frame) {
+        final State state = (State) frame.getAuxiliarySlot(stateSlot);
+        final Object iterator = state.iterator;
         try {
             if (!interop.hasIteratorNextElement(iterator)) {
                 return false;
@@ -90,6 +110,10 @@ public final class ForeachArrayRepeatingNode extends Node implements RepeatingNo
                 //return false;
             }
 
+            if (writeKeyNode != null) {
+                ((WriteNode) writeKeyNode).executeWrite(frame, state.index++);
+            }
+
             assert writeValueNode instanceof WriteNode;
             ((WriteNode) writeValueNode).executeWrite(frame, value);
 
@@ -46,69 +46,137 @@ package org.iolanguage.nodes.controlflow;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.NodeChild;
-import com.oracle.truffle.api.dsl.NodeField;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.strings.TruffleString;
-import com.oracle.truffle.api.strings.TruffleString.CreateCodePointIteratorNode;
-import com.oracle.truffle.api.strings.TruffleString.ErrorHandling;
-import com.oracle.truffle.api.strings.TruffleStringIterator;
 
-import org.iolanguage.IoLanguage;
 import org.iolanguage.NotImplementedException;
 import org.iolanguage.nodes.IoNode;
 import org.iolanguage.nodes.util.ToTruffleStringNode;
+import org.iolanguage.runtime.objects.IoList;
+import org.iolanguage.runtime.objects.IoMap;
 
 @NodeInfo(shortName = "foreach", description = "The node implementing a for loop")
 @NodeChild("receiverNode")
-@NodeField(name = "writeValueNode", type = IoNode.class)
-@NodeField(name = "bodyNode", type = IoNode.class)
 public abstract class ForeachNode extends IoNode {
     static final int LIBRARY_LIMIT = 3;
 
-    public abstract IoNode getWriteValueNode();
+    /*
+     * Templates for the children of the repeating nodes. They are never adopted by this node: each
+     * specialization's loop gets its own copy, so every copy has exactly one parent.
+     */
+    private final IoNode writeKeyNode;
+    private final IoNode writeValueNode;
+    private final IoNode bodyNode;
 
-    public abstract IoNode getBodyNode();
+    private final int stateSlot;
+
+    protected ForeachNode(IoNode writeKeyNode, IoNode writeValueNode, IoNode bodyNode, int stateSlot) {
+        this.writeKeyNode = writeKeyNode;
+        this.writeValueNode = writeValueNode;
+        this.bodyNode = bodyNode;
+        this.stateSlot = stateSlot;
+    }
+
+    /**
+     * The template of the slot written with the index, or the key for maps, of every element.
+     * {@code null} when the loop names only the value.
+     */
+    public IoNode getWriteKeyNode() {
+        return writeKeyNode;
+    }
+
+    public IoNode getWriteValueNode() {
+        return writeValueNode;
+    }
+
+    public IoNode getBodyNode() {
+        return bodyNode;
+    }
 
     @Specialization(guards = "isString(receiver)")
     protected Object foreachString(VirtualFrame frame, Object receiver,
             @Cached ToTruffleStringNode toTruffleStringNode,
-            @Cached CreateCodePointIteratorNode createCodePointIteratorNode,
-            @Cached TruffleStringIterator.NextNode nextNode,
-            @Cached BranchProfile invalidCodePointProfile) {
-        var tstring = toTruffleStringNode.execute(receiver);
-        var tencoding = IoLanguage.STRING_ENCODING;
-        var iterator = createCodePointIteratorNode.execute(tstring, tencoding, ErrorHandling.RETURN_NEGATIVE);
-
-        ForeachStringRepeatingNode repeatingNode = new ForeachStringRepeatingNode(iterator, nextNode,
-                getWriteValueNode(), getBodyNode());
-        Truffle.getRuntime().createLoopNode(repeatingNode).execute(frame);
+            @Cached("createStringLoop()") LoopNode loopNode) {
+        var state = new ForeachStringRepeatingNode.State(toTruffleStringNode.execute(receiver));
+        executeLoop(frame, loopNode, state);
         return receiver;
     }
 
-    @Specialization(guards = "interop.hasArrayElements(receiver)", limit = "LIBRARY_LIMIT")
+    @Specialization
+    protected Object foreachList(VirtualFrame frame, IoList receiver,
+            @Cached("createListLoop()") LoopNode loopNode) {
+        executeLoop(frame, loopNode, new ForeachListRepeatingNode.State(receiver));
+        return receiver;
+    }
+
+    @Specialization
+    protected Object foreachMap(VirtualFrame frame, IoMap receiver,
+            @Cached("createMapLoop()") LoopNode loopNode) {
+        executeLoop(frame, loopNode, receiver.entries());
+        return receiver;
+    }
+
+    @Specialization(guards = "interop.hasArrayElements(receiver)")
     protected Object foreachArray(VirtualFrame frame, Object receiver,
-            @CachedLibrary("receiver") InteropLibrary interop) {
+            @CachedLibrary(limit = "LIBRARY_LIMIT") InteropLibrary interop,
+            @Cached("createArrayLoop()") LoopNode loopNode) {
         try {
             if (!interop.hasIterator(receiver)) {
                 throw UnsupportedMessageException.create();
             }
-            var iterator = interop.getIterator(receiver);
-            var iteratorInterop = InteropLibrary.getFactory().getUncached(iterator);
-            ForeachArrayRepeatingNode repeatingNode = new ForeachArrayRepeatingNode(iterator, iteratorInterop,
-                    getWriteValueNode(), getBodyNode());
-            Truffle.getRuntime().createLoopNode(repeatingNode).execute(frame);
+            executeLoop(frame, loopNode, new ForeachArrayRepeatingNode.State(interop.getIterator(receiver)));
             return receiver;
         } catch (UnsupportedMessageException e) {
             throw new NotImplementedException();
         }
     }
 
+    /*
+     * Every loop node is created once per specialization and keeps its profiles and OSR state. The
+     * state of the iteration in progress, which differs for every execution, is handed to it in an
+     * auxiliary slot of the frame, reserved by the parser, and cleared again once the loop is done.
+     */
+
+    private void executeLoop(VirtualFrame frame, LoopNode loopNode, Object state) {
+        frame.setAuxiliarySlot(stateSlot, state);
+        try {
+            loopNode.execute(frame);
+        } finally {
+            frame.setAuxiliarySlot(stateSlot, null);
+        }
+    }
+
+    protected final LoopNode createStringLoop() {
+        return Truffle.getRuntime().createLoopNode(
+                new ForeachStringRepeatingNode(stateSlot, copy(writeKeyNode), copy(writeValueNode), copy(bodyNode)));
+    }
+
+    protected final LoopNode createListLoop() {
+        return Truffle.getRuntime().createLoopNode(
+                new ForeachListRepeatingNode(stateSlot, copy(writeKeyNode), copy(writeValueNode), copy(bodyNode)));
+    }
+
+    protected final LoopNode createMapLoop() {
+        return Truffle.getRuntime().createLoopNode(
+                new ForeachMapRepeatingNode(stateSlot, copy(writeKeyNode), copy(writeValueNode), copy(bodyNode)));
+    }
+
+    protected final LoopNode createArrayLoop() {
+        return Truffle.getRuntime().createLoopNode(
+                new ForeachArrayRepeatingNode(stateSlot, copy(writeKeyNode), copy(writeValueNode), copy(bodyNode)));
+    }
+
+    private static IoNode copy(IoNode template) {
+        return template == null ? null : NodeUtil.cloneNode(template);
+    }
+
     protected boolean isString(Object a) {
         return a instanceof TruffleString;
     }
@@ -47,49 +47,70 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RepeatingNode;
 import com.oracle.truffle.api.profiles.BranchProfile;
-import com.oracle.truffle.api.strings.TruffleStringIterator;
+import com.oracle.truffle.api.strings.TruffleString;
 
+import org.iolanguage.IoLanguage;
 import org.iolanguage.nodes.IoNode;
 import org.iolanguage.nodes.slots.WriteNode;
 import org.iolanguage.runtime.exceptions.BreakException;
 import org.iolanguage.runtime.exceptions.ContinueException;
 
+/**
+ * Iterates the bytes of a string, the same unit {@code size} and {@code at} use, so a string
+ * behaves as the immutable uint8 Sequence of its UTF-8 encoding. The string and the index live in
+ * a {@link State} kept in an auxiliary frame slot.
+ */
 public final class ForeachStringRepeatingNode extends Node implements RepeatingNode {
 
     @Child
-    private TruffleStringIterator.NextNode nextNode;
+    private TruffleString.ReadByteNode readByteNode;
+    @Child
+    private IoNode writeKeyNode;
     @Child
     private IoNode writeValueNode;
     @Child
     private IoNode bodyNode;
 
-    private final TruffleStringIterator iterator;
-    private final BranchProfile invalidCodePointProfile = BranchProfile.create();
+    private final int stateSlot;
     private final BranchProfile continueTaken = BranchProfile.create();
     private final BranchProfile breakTaken = BranchProfile.create();
 
-    public ForeachStringRepeatingNode(TruffleStringIterator iterator, TruffleStringIterator.NextNode nextNode, IoNode writeValueNode, IoNode bodyNode) {
-        this.iterator = iterator;
-        this.nextNode = nextNode;
+    static final class State {
+        final TruffleString string;
+        final int byteLength;
+        int index;
+
+        State(TruffleString string) {
+            this.string = string;
+            this.byteLength = string.byteLength(IoLanguage.STRING_ENCODING);
+        }
+    }
+
+    public ForeachStringRepeatingNode(int stateSlot, IoNode writeKeyNode, IoNode writeValueNode, IoNode bodyNode) {
+        this.stateSlot = stateSlot;
+        this.writeKeyNode = writeKeyNode;
+        this.readByteNode = TruffleString.ReadByteNode.create();
         this.writeValueNode = writeValueNode;
         this.bodyNode = bodyNode;
     }
 
     @Override
     public boolean executeRepeating(VirtualFrame frame) {
-        if (!iterator.hasNext()) {
+        final State state = (State) frame.getAuxiliarySlot(stateSlot);
+        final int index = state.index;
+        if (index >= state.byteLength) {
             return false;
         }
 
-        int codePoint = nextNode.execute(iterator);
+        long value = readByteNode.execute(state.string, index, IoLanguage.STRING_ENCODING);
 
-        if (codePoint == -1) {
-            invalidCodePointProfile.enter();
-            return false;
+        if (writeKeyNode != null) {
+            ((WriteNode) writeKeyNode).executeWrite(frame, (long) index);
         }
+        state.index = index + 1;
 
         assert writeValueNode instanceof WriteNode;
-        ((WriteNode)writeValueNode).executeWrite(frame, codePoint);
+        ((WriteNode)writeValueNode).executeWrite(frame, value);
 
         try {
             bodyNode.executeGeneric(frame);
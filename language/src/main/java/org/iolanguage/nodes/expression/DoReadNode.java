@@ -47,9 +47,11 @@ import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.strings.TruffleString;
 
 import org.iolanguage.nodes.IoNode;
 import org.iolanguage.nodes.slots.ReadNode;
+import org.iolanguage.nodes.slots.ReadResult;
 import org.iolanguage.runtime.Symbols;
 import org.iolanguage.runtime.objects.IoFunction;
 
@@ -57,10 +59,15 @@ import org.iolanguage.runtime.objects.IoFunction;
 @NodeChild(value = "receiverNode", type = IoNode.class)
 @NodeChild(value = "functionNode", type = IoNode.class)
 public abstract class DoReadNode extends ReadNode {
+    private static final TruffleString SYMBOL_DO = Symbols.constant("do");
+
     @Specialization
-    public Object read(VirtualFrame frame, Object receiver, IoFunction function) {
-        setReceiver(receiver);
-        setName(Symbols.fromJavaString("do"));
-        return function;
+    public ReadResult read(VirtualFrame frame, Object receiver, IoFunction function) {
+        return new ReadResult(receiver, null, SYMBOL_DO, function);
+    }
+
+    @Override
+    public final Object executeGeneric(VirtualFrame frame) {
+        return executeRead(frame).getValue();
     }
 }
@@ -43,21 +43,34 @@
  */
 package org.iolanguage.nodes.expression;
 
+import java.util.Arrays;
+
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
-import com.oracle.truffle.api.dsl.NodeChild;
-import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import com.oracle.truffle.api.strings.TruffleString;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
 
 import org.iolanguage.IoLanguage;
 import org.iolanguage.nodes.IoNode;
+import org.iolanguage.nodes.IoTypesGen;
+import org.iolanguage.nodes.functions.FunctionBodyNode;
+import org.iolanguage.nodes.slots.ReadArgumentNode;
 import org.iolanguage.nodes.slots.ReadNode;
+import org.iolanguage.nodes.slots.ReadResult;
 import org.iolanguage.parser.IoLanguageNodeVisitor;
 import org.iolanguage.runtime.IoState;
 import org.iolanguage.runtime.objects.IoBaseObject;
@@ -65,125 +78,255 @@ import org.iolanguage.runtime.objects.IoBlock;
 import org.iolanguage.runtime.objects.IoCall;
 import org.iolanguage.runtime.objects.IoCoroutine;
 import org.iolanguage.runtime.objects.IoFunction;
-import org.iolanguage.runtime.objects.IoInvokable;
 import org.iolanguage.runtime.objects.IoLocals;
-import org.iolanguage.runtime.objects.IoMessage;
 import org.iolanguage.runtime.objects.IoMethod;
+import org.iolanguage.runtime.objects.IoObject;
 
 @NodeInfo(shortName = "()")
-@NodeChild(value = "valueNode", type = ReadNode.class)
-@NodeField(name = "argumentNodes", type = IoNode[].class)
+@ReportPolymorphism
 public abstract class InvokeNode extends IoNode {
     private static final TruffleLogger LOGGER = IoLanguage.getLogger(IoLanguageNodeVisitor.class);
 
-    public abstract ReadNode getValueNode();
+    static final int INLINE_CACHE_SIZE = 3;
+    // one entry per shape a new call object goes through while its slots are declared
+    static final int CALL_LIBRARY_LIMIT = 8;
 
-    public abstract IoNode[] getArgumentNodes();
+    @Children
+    private final IoNode[] argumentNodes;
+    @Child
+    private ReadNode valueNode;
 
-    public Object getReceiver() {
-        Object receiver = getValueNode().getReceiver();
-        assert receiver != null;
-        return receiver;
+    protected InvokeNode(final IoNode[] argumentNodes, final ReadNode valueNode) {
+        this.argumentNodes = argumentNodes;
+        this.valueNode = valueNode;
     }
 
-    public Object getSender() {
-        Object receiver = getReceiver();
-        if(receiver instanceof IoCall) {
-            return ((IoCall)receiver).getSender();
-        }
-        return receiver;
+    public ReadNode getValueNode() {
+        return valueNode;
     }
 
-    public Object getTarget() {
-        Object receiver = getReceiver();
-        if(receiver instanceof IoCall) {
-            return ((IoCall)receiver).getTarget();
-        }
-        return receiver;
+    public IoNode[] getArgumentNodes() {
+        return argumentNodes;
+    }
+
+    @Override
+    public final Object executeGeneric(VirtualFrame frame) {
+        final ReadResult read = valueNode.executeRead(frame);
+        return executeInvoke(frame, read.getValue(), read);
+    }
+
+    @Override
+    public final long executeLong(VirtualFrame frame) throws UnexpectedResultException {
+        return IoTypesGen.expectLong(executeGeneric(frame));
+    }
+
+    @Override
+    public final double executeDouble(VirtualFrame frame) throws UnexpectedResultException {
+        return IoTypesGen.expectDouble(executeGeneric(frame));
+    }
+
+    @Override
+    public final boolean executeBoolean(VirtualFrame frame) throws UnexpectedResultException {
+        return IoTypesGen.expectBoolean(executeGeneric(frame));
     }
 
-    public IoBaseObject getPrototype() {
-        IoBaseObject prototype = getValueNode().getPrototype();
-        assert prototype != null;
-        return prototype;
+    protected abstract Object executeInvoke(VirtualFrame frame, Object value, ReadResult read);
+
+    public static Object getSender(ReadResult read) {
+        Object receiver = read.getReceiver();
+        assert receiver != null;
+        if (receiver instanceof IoCall) {
+            return ((IoCall) receiver).getSender();
+        }
+        return receiver;
     }
 
-    public TruffleString getName() {
-        TruffleString name = getValueNode().getName();
-        assert name != null;
-        return name;
+    public static Object getTarget(ReadResult read) {
+        Object receiver = read.getReceiver();
+        assert receiver != null;
+        if (receiver instanceof IoCall) {
+            return ((IoCall) receiver).getTarget();
+        }
+        return receiver;
     }
 
     @Specialization
-    public long readLong(VirtualFrame frame, long value) {
+    public long readLong(VirtualFrame frame, long value, ReadResult read) {
         return value;
     }
 
     @Specialization
-    public double readDouble(VirtualFrame frame, double value) {
+    public double readDouble(VirtualFrame frame, double value, ReadResult read) {
         return value;
     }
 
     @Specialization
-    public boolean readBoolean(VirtualFrame frame, boolean value) {
+    public boolean readBoolean(VirtualFrame frame, boolean value, ReadResult read) {
         return value;
     }
 
-    @Specialization
-    protected final Object invokeFunction(VirtualFrame frame, IoFunction function) {
+    @Specialization(limit = "INLINE_CACHE_SIZE", guards = { "function == cachedFunction",
+            "cachedBuiltin != null" }, assumptions = "cachedSlotOwnerAssumption")
+    protected final Object invokeBuiltinInlined(VirtualFrame frame, IoFunction function, ReadResult read,
+            @Cached("function") IoFunction cachedFunction,
+            @Cached("createInlinedBuiltin(cachedFunction)") FunctionBodyNode cachedBuiltin,
+            @Cached("getSlotOwnerAssumption(read)") Assumption cachedSlotOwnerAssumption) {
+        LOGGER.fine("Invoke inlined builtin named " + read.getName());
+        return cachedBuiltin.executeInlined(frame, read.getReceiver());
+    }
+
+    @Specialization(limit = "INLINE_CACHE_SIZE", guards = "function.getCallTarget() == cachedTarget")
+    protected final Object invokeFunctionDirect(VirtualFrame frame, IoFunction function, ReadResult read,
+            @Cached("function.getCallTarget()") RootCallTarget cachedTarget,
+            @Cached("create(cachedTarget)") DirectCallNode callNode) {
         final int argumentsCount = getArgumentNodes().length + IoLocals.FIRST_PARAMETER_ARGUMENT_INDEX;
-        LOGGER.fine("Invoke function named " + getName());
-        return doInvoke(frame, function, getReceiver(), argumentsCount);
+        LOGGER.fine("Invoke function named " + read.getName());
+        return callNode.call(createArguments(frame, read.getReceiver(), argumentsCount));
     }
 
-    @Specialization
-    protected final Object invokeBlock(VirtualFrame frame, IoBlock block) {
-        Object target = getTarget();
+    @ReportPolymorphism.Megamorphic
+    @Specialization(replaces = { "invokeBuiltinInlined", "invokeFunctionDirect" })
+    protected final Object invokeFunctionIndirect(VirtualFrame frame, IoFunction function, ReadResult read,
+            @Cached IndirectCallNode callNode) {
+        final int argumentsCount = getArgumentNodes().length + IoLocals.FIRST_PARAMETER_ARGUMENT_INDEX;
+        LOGGER.fine("Invoke function named " + read.getName());
+        return callNode.call(function.getCallTarget(), createArguments(frame, read.getReceiver(), argumentsCount));
+    }
+
+    @Specialization(limit = "INLINE_CACHE_SIZE", guards = "block.getCallTarget() == cachedTarget")
+    protected final Object invokeBlockDirect(VirtualFrame frame, IoBlock block, ReadResult read,
+            @Cached("block.getCallTarget()") RootCallTarget cachedTarget,
+            @Cached("getArgumentsCount(block)") int argumentsCount,
+            @Cached("create(cachedTarget)") DirectCallNode callNode,
+            @CachedLibrary(limit = "CALL_LIBRARY_LIMIT") DynamicObjectLibrary callLibrary) {
+        LOGGER.fine("Invoke block named " + read.getName());
+        return callNode.call(createArguments(frame, getBlockTarget(block, read, callLibrary), argumentsCount));
+    }
+
+    @ReportPolymorphism.Megamorphic
+    @Specialization(replaces = "invokeBlockDirect")
+    protected final Object invokeBlockIndirect(VirtualFrame frame, IoBlock block, ReadResult read,
+            @Cached IndirectCallNode callNode,
+            @CachedLibrary(limit = "CALL_LIBRARY_LIMIT") DynamicObjectLibrary callLibrary) {
+        LOGGER.fine("Invoke block named " + read.getName());
+        return callNode.call(block.getCallTarget(),
+                createIndirectArguments(frame, getBlockTarget(block, read, callLibrary), getArgumentsCount(block)));
+    }
+
+    @Specialization(limit = "INLINE_CACHE_SIZE", guards = { "!isBlock(method)",
+            "method.getCallTarget() == cachedTarget" })
+    protected final Object invokeMethodDirect(VirtualFrame frame, IoMethod method, ReadResult read,
+            @Cached("method.getCallTarget()") RootCallTarget cachedTarget,
+            @Cached("getArgumentsCount(method)") int argumentsCount,
+            @Cached("create(cachedTarget)") DirectCallNode callNode,
+            @CachedLibrary(limit = "CALL_LIBRARY_LIMIT") DynamicObjectLibrary callLibrary) {
+        LOGGER.fine("Invoke method named " + read.getName());
+        return callNode.call(
+                createArguments(frame, getMethodTarget(frame, method, read, callLibrary), argumentsCount));
+    }
+
+    @ReportPolymorphism.Megamorphic
+    @Specialization(guards = "!isBlock(method)", replaces = "invokeMethodDirect")
+    protected final Object invokeMethodIndirect(VirtualFrame frame, IoMethod method, ReadResult read,
+            @Cached IndirectCallNode callNode,
+            @CachedLibrary(limit = "CALL_LIBRARY_LIMIT") DynamicObjectLibrary callLibrary) {
+        LOGGER.fine("Invoke method named " + read.getName());
+        return callNode.call(method.getCallTarget(),
+                createIndirectArguments(frame, getMethodTarget(frame, method, read, callLibrary),
+                        getArgumentsCount(method)));
+    }
+
+    @Fallback
+    protected final Object getValue(VirtualFrame frame, Object value, ReadResult read) {
+        return value;
+    }
+
+    /**
+     * Instantiates the body of an inlinable builtin for this call site. The receiver is passed in
+     * already evaluated, the arguments are evaluated by copies of this call site's argument nodes.
+     * Returns null if the builtin cannot be inlined or takes a different number of arguments.
+     */
+    protected final FunctionBodyNode createInlinedBuiltin(IoFunction function) {
+        NodeFactory<? extends FunctionBodyNode> factory = function.getInlinableFactory();
+        if (factory == null || factory.getExecutionSignature().size() != argumentNodes.length + 1) {
+            return null;
+        }
+        IoNode[] builtinArgumentNodes = new IoNode[argumentNodes.length + 1];
+        // never executed, executeInlined() receives the evaluated receiver
+        builtinArgumentNodes[0] = new ReadArgumentNode(IoLocals.TARGET_ARGUMENT_INDEX);
+        for (int i = 0; i < argumentNodes.length; i++) {
+            builtinArgumentNodes[i + 1] = NodeUtil.cloneNode(argumentNodes[i]);
+        }
+        return factory.createNode((Object) builtinArgumentNodes);
+    }
+
+    /**
+     * The inlined builtin stays valid as long as the prototype it was found in keeps its layout.
+     */
+    static Assumption getSlotOwnerAssumption(ReadResult read) {
+        IoBaseObject slotOwner = read.getSlotOwner();
+        if (slotOwner instanceof IoObject) {
+            return ((IoObject) slotOwner).getLayoutAssumption();
+        }
+        return Assumption.NEVER_VALID;
+    }
+
+    protected final Object getBlockTarget(IoBlock block, ReadResult read, DynamicObjectLibrary callLibrary) {
+        Object target = getTarget(read);
         if (block.getCallSlotIsUsed()) {
             IoLocals sender = block.getSender();
-            IoMessage message = IoState.get(this).createMessage(getName(), getArgumentNodes());
             IoCoroutine currentCoroutine = IoState.get(this).getCurrentCoroutine();
-            IoCall call = IoState.get(this).createCall(sender, sender, message, getPrototype(), block,
-                    currentCoroutine);
+            IoCall call = IoState.get(this).createCall(callLibrary, sender, sender, read.getName(),
+                    getArgumentNodes(), read.getSlotOwner(), block, currentCoroutine);
             target = call;
         }
-        int argumentsCount = block.getNumArgs() + IoLocals.FIRST_PARAMETER_ARGUMENT_INDEX;
-        LOGGER.fine("Invoke block named " + getName());
-        return doInvoke(frame, block, target, argumentsCount);
+        return target;
     }
 
-    @Specialization
-    protected final Object invokeMethod(VirtualFrame frame, IoMethod method) {
-        Object target = getTarget();
+    protected final Object getMethodTarget(VirtualFrame frame, IoMethod method, ReadResult read,
+            DynamicObjectLibrary callLibrary) {
+        Object target = getTarget(read);
         if (method.getCallSlotIsUsed()) {
-            IoLocals sender = IoState.get(this).createLocals(getSender(), frame.materialize());
-            IoMessage message = IoState.get(this).createMessage(getName(), getArgumentNodes());
+            // sender locals and message are only created if the method reads them
             IoCoroutine currentCoroutine = IoState.get(this).getCurrentCoroutine();
-            IoCall call = IoState.get(this).createCall(sender, target, message, getPrototype(), method,
-                    currentCoroutine);
+            IoCall call = IoState.get(this).createCall(callLibrary, read.getReceiver(), frame.materialize(),
+                    target, read.getName(), getArgumentNodes(), read.getSlotOwner(), method, currentCoroutine);
             target = call;
         }
-        int argumentsCount = method.getNumArgs() + IoLocals.FIRST_PARAMETER_ARGUMENT_INDEX;
-        LOGGER.fine("Invoke method named " + getName());
-        return doInvoke(frame, method, target, argumentsCount);
-    }
-
-    @Fallback
-    protected final Object getValue(VirtualFrame frame, Object value) {
-        return value;
+        return target;
     }
 
     @ExplodeLoop
-    protected final Object doInvoke(VirtualFrame frame, IoInvokable invokable, final Object receiver,
-            final int argumentsCount) {
-        CompilerAsserts.compilationConstant(argumentsCount);
+    protected final Object[] createArguments(VirtualFrame frame, final Object receiver, final int argumentsCount) {
+        CompilerAsserts.partialEvaluationConstant(argumentsCount);
         Object[] argumentValues = new Object[argumentsCount];
         argumentValues[IoLocals.TARGET_ARGUMENT_INDEX] = receiver;
-        for (int i = 0; i < getArgumentNodes().length; i++) {
-            argumentValues[i + IoLocals.FIRST_PARAMETER_ARGUMENT_INDEX] = getArgumentNodes()[i].executeGeneric(frame);
+        for (int i = 0; i < argumentNodes.length; i++) {
+            argumentValues[i + IoLocals.FIRST_PARAMETER_ARGUMENT_INDEX] = argumentNodes[i].executeGeneric(frame);
         }
-        Object result = DirectCallNode.create(invokable.getCallTarget()).call(argumentValues);
-        return result;
+        return argumentValues;
+    }
+
+    /**
+     * Arguments for a callee that is not constant: the exploded loop is sized by this call site,
+     * which is constant, and the array is only padded afterwards to the arity of the callee.
+     */
+    protected final Object[] createIndirectArguments(VirtualFrame frame, final Object receiver,
+            final int calleeArgumentsCount) {
+        Object[] argumentValues = createArguments(frame, receiver,
+                argumentNodes.length + IoLocals.FIRST_PARAMETER_ARGUMENT_INDEX);
+        if (calleeArgumentsCount > argumentValues.length) {
+            argumentValues = Arrays.copyOf(argumentValues, calleeArgumentsCount);
+        }
+        return argumentValues;
+    }
+
+    static int getArgumentsCount(IoMethod method) {
+        return method.getNumArgs() + IoLocals.FIRST_PARAMETER_ARGUMENT_INDEX;
+    }
+
+    static boolean isBlock(IoMethod method) {
+        return method instanceof IoBlock;
     }
 
 }
@@ -65,6 +65,18 @@ public abstract class FunctionBodyNode extends IoNode {
         }
     }
 
+    /**
+     * Executes the builtin with an already evaluated receiver, used when a call site inlines the
+     * builtin. The remaining arguments are evaluated by the builtin's own argument nodes.
+     */
+    public final Object executeInlined(VirtualFrame frame, Object receiver) {
+        try {
+            return executeWithReceiver(frame, receiver);
+        } catch (UnsupportedSpecializationException e) {
+            throw IoLanguageException.typeError(e.getNode(), e.getSuppliedValues());
+        }
+    }
+
     @Override
     public final long executeLong(VirtualFrame frame) throws UnexpectedResultException {
         return super.executeLong(frame);
@@ -81,4 +93,6 @@ public abstract class FunctionBodyNode extends IoNode {
     }
 
     protected abstract Object execute(VirtualFrame frame);
+
+    protected abstract Object executeWithReceiver(VirtualFrame frame, Object receiver);
 }
@@ -53,6 +53,7 @@ import org.iolanguage.ShouldNotBeHereException;
 import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.runtime.Symbols;
 import org.iolanguage.runtime.exceptions.UndefinedNameException;
+import org.iolanguage.runtime.objects.IoList;
 
 @NodeInfo(shortName = "append")
 public abstract class ListAppendFunction extends FunctionBodyNode {
@@ -60,6 +61,24 @@ public abstract class ListAppendFunction extends FunctionBodyNode {
     static final TruffleString SYMBOL_APPEND = Symbols.constant("append");
     static final int LIBRARY_LIMIT = 3;
 
+    @Specialization(guards = "receiver.isLongStorage() || receiver.isEmptyStorage()")
+    protected Object appendLong(IoList receiver, long value) {
+        receiver.appendLong(value);
+        return receiver;
+    }
+
+    @Specialization(guards = "receiver.isDoubleStorage() || receiver.isEmptyStorage()")
+    protected Object appendDouble(IoList receiver, double value) {
+        receiver.appendDouble(value);
+        return receiver;
+    }
+
+    @Specialization(guards = "receiver.isObjectStorage()")
+    protected Object appendObject(IoList receiver, Object value) {
+        receiver.appendObject(value);
+        return receiver;
+    }
+
     @Specialization(guards = "arrays.hasArrayElements(receiver)", limit = "LIBRARY_LIMIT")
     protected Object atArrayPut(Object receiver, Object value,
             @CachedLibrary("receiver") InteropLibrary arrays) {
@@ -44,6 +44,7 @@ import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.runtime.Symbols;
 import org.iolanguage.runtime.exceptions.OutOfBoundsException;
 import org.iolanguage.runtime.exceptions.UndefinedNameException;
+import org.iolanguage.runtime.objects.IoList;
 
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.InteropLibrary;
@@ -59,6 +60,21 @@ public abstract class ListAtFunction extends FunctionBodyNode {
     static final TruffleString SYMBOL_AT = Symbols.constant("at");
     static final int LIBRARY_LIMIT = 3;
 
+    @Specialization(guards = { "receiver.isLongStorage()", "receiver.isInBounds(index)" })
+    protected long atLong(IoList receiver, long index) {
+        return receiver.getLong((int) index);
+    }
+
+    @Specialization(guards = { "receiver.isDoubleStorage()", "receiver.isInBounds(index)" })
+    protected double atDouble(IoList receiver, long index) {
+        return receiver.getDouble((int) index);
+    }
+
+    @Specialization(guards = { "receiver.isObjectStorage()", "receiver.isInBounds(index)" })
+    protected Object atObject(IoList receiver, long index) {
+        return receiver.getObject((int) index);
+    }
+
     @Specialization(guards = "arrays.hasArrayElements(receiver)", limit = "LIBRARY_LIMIT")
     protected Object atArray(Object receiver, Object index,
             @CachedLibrary("receiver") InteropLibrary arrays,
@@ -53,6 +53,7 @@ import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.runtime.Symbols;
 import org.iolanguage.runtime.exceptions.OutOfBoundsException;
 import org.iolanguage.runtime.exceptions.UndefinedNameException;
+import org.iolanguage.runtime.objects.IoList;
 
 @NodeInfo(shortName = "atPut")
 public abstract class ListAtPutFunction extends FunctionBodyNode {
@@ -60,6 +61,24 @@ public abstract class ListAtPutFunction extends FunctionBodyNode {
     static final TruffleString SYMBOL_AT_PUT = Symbols.constant("atPut");
     static final int LIBRARY_LIMIT = 3;
 
+    @Specialization(guards = { "receiver.isLongStorage()", "receiver.isInBounds(index)" })
+    protected Object atPutLong(IoList receiver, long index, long value) {
+        receiver.setLong((int) index, value);
+        return receiver;
+    }
+
+    @Specialization(guards = { "receiver.isDoubleStorage()", "receiver.isInBounds(index)" })
+    protected Object atPutDouble(IoList receiver, long index, double value) {
+        receiver.setDouble((int) index, value);
+        return receiver;
+    }
+
+    @Specialization(guards = { "receiver.isObjectStorage()", "receiver.isInBounds(index)" })
+    protected Object atPutObject(IoList receiver, long index, Object value) {
+        receiver.setObject((int) index, value);
+        return receiver;
+    }
+
     @Specialization(guards = "arrays.hasArrayElements(receiver)", limit = "LIBRARY_LIMIT")
     protected Object atArrayPut(Object receiver, Object index, Object value,
                     @CachedLibrary("receiver") InteropLibrary arrays,
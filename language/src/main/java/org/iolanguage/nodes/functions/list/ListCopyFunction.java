@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.nodes.functions.list;
+
+import org.iolanguage.nodes.functions.FunctionBodyNode;
+import org.iolanguage.runtime.exceptions.IoLanguageException;
+import org.iolanguage.runtime.objects.IoList;
+
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.NodeInfo;
+
+/**
+ * Replaces the elements of the receiver with the elements of the argument. A list argument shares
+ * its storage with the receiver until either of them is written.
+ */
+@NodeInfo(shortName = "copy")
+public abstract class ListCopyFunction extends FunctionBodyNode {
+
+    static final int LIBRARY_LIMIT = 3;
+
+    @Specialization
+    protected Object copy(IoList receiver, IoList source) {
+        return receiver.copyFrom(source, 0, source.getSize());
+    }
+
+    /**
+     * Any other array, such as a Sequence or a foreign array, is copied element by element.
+     */
+    @Specialization(guards = "arrays.hasArrayElements(source)", limit = "LIBRARY_LIMIT")
+    protected Object copyArray(IoList receiver, Object source,
+            @CachedLibrary("source") InteropLibrary arrays) {
+        try {
+            long size = arrays.getArraySize(source);
+            if (size > Integer.MAX_VALUE) {
+                throw IoLanguageException.typeError(this, receiver, source);
+            }
+            Object[] values = new Object[(int) size];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arrays.readArrayElement(source, i);
+            }
+            return receiver.copyFrom(values);
+        } catch (UnsupportedMessageException | InvalidArrayIndexException e) {
+            throw IoLanguageException.typeError(this, receiver, source);
+        }
+    }
+
+    @Fallback
+    protected Object typeError(Object receiver, Object source) {
+        throw IoLanguageException.typeError(this, receiver, source);
+    }
+}
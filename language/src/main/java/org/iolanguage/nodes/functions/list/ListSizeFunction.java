@@ -45,6 +45,7 @@ package org.iolanguage.nodes.functions.list;
 
 import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.runtime.exceptions.IoLanguageException;
+import org.iolanguage.runtime.objects.IoList;
 
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.InteropLibrary;
@@ -55,6 +56,11 @@ import com.oracle.truffle.api.nodes.NodeInfo;
 @NodeInfo(shortName = "getSize")
 public abstract class ListSizeFunction extends FunctionBodyNode {
 
+    @Specialization
+    public long getSizeList(IoList list) {
+        return list.getSize();
+    }
+
     @Specialization(limit = "3")
     public Object getSize(Object obj, @CachedLibrary("obj") InteropLibrary arrays) {
         try {
@@ -6,7 +6,7 @@
  *
  * Subject to the condition set forth below, permission is hereby granted to any
  * person obtaining a copy of this software, associated documentation and/or
- * data (collectively the "Software"), free of charge and under any and all
+ * list (collectively the "Software"), free of charge and under any and all
  * copyright rights in the Software, and any and all patent rights owned or
  * freely licensable by each licensor hereunder covering either (i) the
  * unmodified Software as contributed to or provided by such licensor, or (ii)
@@ -41,25 +41,49 @@
 package org.iolanguage.nodes.functions.map;
 
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.strings.TruffleString;
 
 import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.nodes.util.ToTruffleStringNode;
+import org.iolanguage.runtime.exceptions.IoLanguageException;
 import org.iolanguage.runtime.objects.IoMap;
 import org.iolanguage.runtime.objects.IoNil;
 
 @NodeInfo(shortName = "at")
+@ImportStatic(IoMap.class)
 public abstract class MapAtFunction extends FunctionBodyNode {
 
     @Specialization
-    protected Object atArray(IoMap receiver, Object key,
+    protected Object atLong(IoMap receiver, long key) {
+        return orNil(receiver.getLongKey(key));
+    }
+
+    @Specialization
+    protected Object atString(IoMap receiver, TruffleString key) {
+        return orNil(receiver.getStringKey(key));
+    }
+
+    @Specialization(guards = "isIdentityKey(key)")
+    protected Object atIdentity(IoMap receiver, Object key) {
+        return orNil(receiver.getIdentityKey(key));
+    }
+
+    @Specialization(guards = "!isIdentityKey(key)")
+    protected Object atConverted(IoMap receiver, Object key,
             @Cached ToTruffleStringNode toTruffleStringNode) {
-        Object value = receiver.getMapElement(toTruffleStringNode.execute(key));
-        if(value != null) {
-            return value;
-        }
-        return IoNil.SINGLETON;
+        return orNil(receiver.getStringKey(toTruffleStringNode.execute(key)));
     }
 
+    @Fallback
+    protected Object typeError(Object receiver, Object key) {
+        throw IoLanguageException.typeError(this, receiver);
+    }
+
+    private static Object orNil(Object value) {
+        return value == null ? IoNil.SINGLETON : value;
+    }
 }
@@ -6,7 +6,7 @@
  *
  * Subject to the condition set forth below, permission is hereby granted to any
  * person obtaining a copy of this software, associated documentation and/or
- * data (collectively the "Software"), free of charge and under any and all
+ * list (collectively the "Software"), free of charge and under any and all
  * copyright rights in the Software, and any and all patent rights owned or
  * freely licensable by each licensor hereunder covering either (i) the
  * unmodified Software as contributed to or provided by such licensor, or (ii)
@@ -42,26 +42,47 @@ package org.iolanguage.nodes.functions.map;
 
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.strings.TruffleString;
 
-import org.iolanguage.ShouldNotBeHereException;
 import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.nodes.util.ToTruffleStringNode;
+import org.iolanguage.runtime.exceptions.IoLanguageException;
 import org.iolanguage.runtime.objects.IoMap;
 
 @NodeInfo(shortName = "atPut")
+@ImportStatic(IoMap.class)
 public abstract class MapAtPutFunction extends FunctionBodyNode {
 
     @Specialization
-    protected Object atPutMap(IoMap receiver, Object key, Object value,
+    protected Object atPutLong(IoMap receiver, long key, Object value) {
+        receiver.putLongKey(key, value);
+        return receiver;
+    }
+
+    @Specialization
+    protected Object atPutString(IoMap receiver, TruffleString key, Object value) {
+        receiver.putStringKey(key, value);
+        return receiver;
+    }
+
+    @Specialization(guards = "isIdentityKey(key)")
+    protected Object atPutIdentity(IoMap receiver, Object key, Object value) {
+        receiver.putIdentityKey(key, value);
+        return receiver;
+    }
+
+    @Specialization(guards = "!isIdentityKey(key)")
+    protected Object atPutConverted(IoMap receiver, Object key, Object value,
             @Cached ToTruffleStringNode toTruffleStringNode) {
-        receiver.putMapElement(toTruffleStringNode.execute(key), value);
+        receiver.putStringKey(toTruffleStringNode.execute(key), value);
         return receiver;
     }
 
     @Fallback
-    protected Object atPut(Object receiver, Object key, Object value) {
-        throw new ShouldNotBeHereException();
+    protected Object typeError(Object receiver, Object key, Object value) {
+        throw IoLanguageException.typeError(this, receiver);
     }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * list (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.nodes.functions.map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.strings.TruffleString;
+
+import org.iolanguage.nodes.functions.FunctionBodyNode;
+import org.iolanguage.nodes.util.ToTruffleStringNode;
+import org.iolanguage.runtime.exceptions.IoLanguageException;
+import org.iolanguage.runtime.objects.IoMap;
+
+/**
+ * Chooses which entry a map bounded by {@code setMaxSize} evicts: {@code "lru"} for the least
+ * recently used one, {@code "lfu"} for the least frequently used one.
+ */
+@NodeInfo(shortName = "setEvictionPolicy")
+public abstract class MapSetEvictionPolicyFunction extends FunctionBodyNode {
+
+    @Specialization
+    protected Object setEvictionPolicy(IoMap receiver, Object policy,
+            @Cached ToTruffleStringNode toTruffleStringNode,
+            @Cached TruffleString.ToJavaStringNode toJavaStringNode) {
+        String name = toJavaStringNode.execute(toTruffleStringNode.execute(policy));
+        receiver.setEviction(receiver.getMaxSize(), parsePolicy(name), receiver.getTimeToLive());
+        return receiver;
+    }
+
+    @Fallback
+    protected Object typeError(Object receiver, Object policy) {
+        throw IoLanguageException.typeError(this, receiver, policy);
+    }
+
+    @TruffleBoundary
+    private IoMap.EvictionPolicy parsePolicy(String name) {
+        switch (name) {
+            case "lru":
+                return IoMap.EvictionPolicy.LRU;
+            case "lfu":
+                return IoMap.EvictionPolicy.LFU;
+            default:
+                throw new IoLanguageException("Unknown eviction policy '" + name + "', expected \"lru\" or \"lfu\"", this);
+        }
+    }
+}
@@ -91,6 +91,9 @@ public abstract class ObjectCloneFunction extends FunctionBodyNode {
         if(proto == IoPrototype.MAP) {
             return IoState.get(this).createMap();
         }
+        if(proto == IoPrototype.LIST) {
+            return IoState.get(this).createList(new Object[0]);
+        }
         if(proto instanceof IoPrototype) {
             return IoState.get(this).cloneObject(proto);
         }
@@ -44,7 +44,7 @@
 package org.iolanguage.nodes.functions.object;
 
 import org.iolanguage.nodes.functions.FunctionBodyNode;
-import org.iolanguage.nodes.util.ToTruffleStringNode;
+import org.iolanguage.nodes.util.ToSymbolNode;
 import org.iolanguage.runtime.IoObjectUtil;
 import org.iolanguage.runtime.objects.IoNil;
 
@@ -60,8 +60,8 @@ public abstract class ObjectGetSlotFunction extends FunctionBodyNode {
     @Specialization(limit = "3", guards = "lib.hasMembers(receiver)")
     protected Object readIOObject(Object receiver, Object name,
             @CachedLibrary("receiver") InteropLibrary lib,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        TruffleString nameTS = toTruffleStringNode.execute(name);
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
         Object value = IoObjectUtil.getOrDefault(receiver, nameTS, IoNil.SINGLETON);
         return value;
     }
@@ -40,17 +40,56 @@
  */
 package org.iolanguage.nodes.functions.sequence;
 
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.strings.InternalByteArray;
+import com.oracle.truffle.api.strings.TruffleString;
 
-import org.iolanguage.NotImplementedException;
 import org.iolanguage.nodes.functions.FunctionBodyNode;
+import org.iolanguage.nodes.util.ToTruffleStringNode;
+import org.iolanguage.runtime.exceptions.IoLanguageException;
+import org.iolanguage.runtime.objects.IoSequence;
 
+/**
+ * Appends a sequence in place. Strings and other values are appended as their UTF-8 bytes.
+ */
 @NodeInfo(shortName = "appendSeq")
 public abstract class SequenceAppendSeqFunction extends FunctionBodyNode {
 
+    @Specialization(guards = "isString(receiver)")
+    protected TruffleString appendSeqString(Object receiver, Object value) {
+        throw new IoLanguageException("'appendSeq' cannot be called on an immutable Sequence", this);
+    }
+
     @Specialization
-    protected Object appendSeq(Object receiver, Object value) {
-        throw new NotImplementedException();
+    protected Object appendSeq(IoSequence receiver, IoSequence value) {
+        receiver.appendSeq(value);
+        return receiver;
+    }
+
+    @Specialization(guards = "!isSequence(value)")
+    protected Object appendString(IoSequence receiver, Object value,
+            @Cached ToTruffleStringNode toTruffleStringNode,
+            @Cached TruffleString.SwitchEncodingNode switchEncodingNode,
+            @Cached TruffleString.GetInternalByteArrayNode getInternalByteArrayNode) {
+        TruffleString string = switchEncodingNode.execute(toTruffleStringNode.execute(value), TruffleString.Encoding.UTF_8);
+        InternalByteArray bytes = getInternalByteArrayNode.execute(string, TruffleString.Encoding.UTF_8);
+        receiver.appendBytes(bytes.getArray(), bytes.getOffset(), bytes.getLength());
+        return receiver;
+    }
+
+    @Fallback
+    protected Object typeError(Object receiver, Object value) {
+        throw IoLanguageException.typeError(this, receiver, value);
+    }
+
+    protected boolean isString(Object a) {
+        return a instanceof TruffleString;
+    }
+
+    protected boolean isSequence(Object a) {
+        return a instanceof IoSequence;
     }
 }
@@ -50,6 +50,7 @@ import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.strings.TruffleString;
 
+import org.iolanguage.IoLanguage;
 import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.nodes.util.ToTruffleStringNode;
 import org.iolanguage.runtime.Symbols;
@@ -66,10 +67,10 @@ public abstract class SequenceAtFunction extends FunctionBodyNode {
     @TruffleBoundary
     protected long atString(Object receiver, Object index,
             @Cached ToTruffleStringNode toTruffleStringNode, 
-            @Cached TruffleString.ReadCharUTF16Node readByteNode,
+            @Cached TruffleString.ReadByteNode readByteNode,
             @CachedLibrary("index") InteropLibrary numbers) {
         try {
-            return (long) readByteNode.execute(toTruffleStringNode.execute(receiver), (int) numbers.asInt(index));
+            return (long) readByteNode.execute(toTruffleStringNode.execute(receiver), numbers.asInt(index), IoLanguage.STRING_ENCODING);
         } catch (UnsupportedMessageException e) {
             throw UndefinedNameException.undefinedField(this, SYMBOL_AT);
         } catch (IndexOutOfBoundsException e) {
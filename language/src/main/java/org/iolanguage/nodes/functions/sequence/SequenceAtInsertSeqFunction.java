@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.nodes.functions.sequence;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.strings.InternalByteArray;
+import com.oracle.truffle.api.strings.TruffleString;
+
+import org.iolanguage.nodes.functions.FunctionBodyNode;
+import org.iolanguage.nodes.util.ToTruffleStringNode;
+import org.iolanguage.runtime.exceptions.IoLanguageException;
+import org.iolanguage.runtime.exceptions.OutOfBoundsException;
+import org.iolanguage.runtime.objects.IoSequence;
+
+@NodeInfo(shortName = "atInsertSeq")
+public abstract class SequenceAtInsertSeqFunction extends FunctionBodyNode {
+
+    @Specialization(guards = "isString(receiver)")
+    protected TruffleString atInsertSeqString(Object receiver, Object index, Object value) {
+        throw new IoLanguageException("'atInsertSeq' cannot be called on an immutable Sequence", this);
+    }
+
+    @Specialization
+    protected Object atInsertSeq(IoSequence receiver, long index, IoSequence value) {
+        checkIndex(receiver, index);
+        receiver.atInsertSeq(index, value);
+        return receiver;
+    }
+
+    @Specialization(guards = "!isSequence(value)")
+    protected Object atInsertString(IoSequence receiver, long index, Object value,
+            @Cached ToTruffleStringNode toTruffleStringNode,
+            @Cached TruffleString.SwitchEncodingNode switchEncodingNode,
+            @Cached TruffleString.GetInternalByteArrayNode getInternalByteArrayNode) {
+        checkIndex(receiver, index);
+        TruffleString string = switchEncodingNode.execute(toTruffleStringNode.execute(value), TruffleString.Encoding.UTF_8);
+        InternalByteArray bytes = getInternalByteArrayNode.execute(string, TruffleString.Encoding.UTF_8);
+        receiver.atInsertBytes(index, bytes.getArray(), bytes.getOffset(), bytes.getLength());
+        return receiver;
+    }
+
+    @Fallback
+    protected Object typeError(Object receiver, Object index, Object value) {
+        throw IoLanguageException.typeError(this, receiver, index, value);
+    }
+
+    private void checkIndex(IoSequence receiver, long index) {
+        if (index < 0 || index > receiver.getSize()) {
+            throw OutOfBoundsException.outOfBoundsInteger(this, index);
+        }
+    }
+
+    protected boolean isString(Object a) {
+        return a instanceof TruffleString;
+    }
+
+    protected boolean isSequence(Object a) {
+        return a instanceof IoSequence;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.nodes.functions.sequence;
+
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.strings.TruffleString;
+
+import org.iolanguage.nodes.functions.FunctionBodyNode;
+import org.iolanguage.runtime.exceptions.IoLanguageException;
+import org.iolanguage.runtime.objects.IoSequence;
+
+/**
+ * Removes the items from start up to and including end. Negative indexes count from the end of
+ * the sequence and indexes past either end are clamped to it.
+ */
+@NodeInfo(shortName = "removeSlice")
+public abstract class SequenceRemoveSliceFunction extends FunctionBodyNode {
+
+    @Specialization(guards = "isString(receiver)")
+    protected TruffleString removeSliceString(Object receiver, Object start, Object end) {
+        throw new IoLanguageException("'removeSlice' cannot be called on an immutable Sequence", this);
+    }
+
+    @Specialization
+    protected Object removeSlice(IoSequence receiver, long start, long end) {
+        final long size = receiver.getSize();
+        final long from = wrap(start, size);
+        final long to = Math.min(wrap(end, size), size - 1);
+        if (from <= to) {
+            receiver.removeSlice(from, to);
+        }
+        return receiver;
+    }
+
+    @Fallback
+    protected Object typeError(Object receiver, Object start, Object end) {
+        throw IoLanguageException.typeError(this, receiver, start, end);
+    }
+
+    private static long wrap(long index, long size) {
+        return index < 0 ? Math.max(size + index, 0) : index;
+    }
+
+    protected boolean isString(Object a) {
+        return a instanceof TruffleString;
+    }
+}
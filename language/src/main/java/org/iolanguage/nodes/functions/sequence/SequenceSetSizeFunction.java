@@ -50,6 +50,8 @@ import org.iolanguage.NotImplementedException;
 import org.iolanguage.nodes.functions.FunctionBodyNode;
 import org.iolanguage.runtime.Symbols;
 import org.iolanguage.runtime.exceptions.IoLanguageException;
+import org.iolanguage.runtime.exceptions.OutOfBoundsException;
+import org.iolanguage.runtime.objects.IoSequence;
 
 @NodeInfo(shortName = "setSize")
 public abstract class SequenceSetSizeFunction extends FunctionBodyNode {
@@ -62,6 +64,15 @@ public abstract class SequenceSetSizeFunction extends FunctionBodyNode {
         throw new IoLanguageException("'setSize' cannot be called on an immutable Sequence", this);
     }
 
+    @Specialization
+    protected Object setSizeSequence(IoSequence receiver, long size) {
+        if (size < 0) {
+            throw OutOfBoundsException.outOfBoundsInteger(this, size);
+        }
+        receiver.setArraySize(size);
+        return receiver;
+    }
+
     @Specialization(guards = "arrays.hasArrayElements(receiver)", limit = "LIBRARY_LIMIT")
     protected long sizeArray(Object receiver, Object size, @CachedLibrary("receiver") InteropLibrary arrays,
             @CachedLibrary("size") InteropLibrary numbers) {
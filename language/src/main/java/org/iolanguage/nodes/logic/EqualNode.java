@@ -59,6 +59,7 @@ import org.iolanguage.runtime.objects.IoBigInteger;
 import org.iolanguage.runtime.objects.IoFalse;
 import org.iolanguage.runtime.objects.IoInvokable;
 import org.iolanguage.runtime.objects.IoNil;
+import org.iolanguage.runtime.objects.IoSequence;
 import org.iolanguage.runtime.objects.IoTrue;
 
 /**
@@ -105,6 +106,24 @@ public abstract class EqualNode extends BinaryNode {
         return equalNode.execute(left, right, IoLanguage.STRING_ENCODING);
     }
 
+    @Specialization
+    protected boolean doSequence(IoSequence left, IoSequence right,
+                    @Cached TruffleString.EqualNode equalNode) {
+        return equalNode.execute(left.toTruffleString(), right.toTruffleString(), IoLanguage.STRING_ENCODING);
+    }
+
+    @Specialization
+    protected boolean doSequenceString(IoSequence left, TruffleString right,
+                    @Cached TruffleString.EqualNode equalNode) {
+        return equalNode.execute(left.toTruffleString(), right, IoLanguage.STRING_ENCODING);
+    }
+
+    @Specialization
+    protected boolean doStringSequence(TruffleString left, IoSequence right,
+                    @Cached TruffleString.EqualNode equalNode) {
+        return equalNode.execute(left, right.toTruffleString(), IoLanguage.STRING_ENCODING);
+    }
+
     @Specialization
     protected boolean doNull(IoNil left, IoNil right) {
         return left == right;
@@ -108,6 +108,14 @@ public class IoRootNode extends RootNode {
         return isCloningAllowed;
     }
 
+    @Override
+    public Node copy() {
+        // a split copy gets its own tree, the cached argument nodes belong to the original
+        IoRootNode copy = (IoRootNode) super.copy();
+        copy.argumentNodesCache = null;
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "root";
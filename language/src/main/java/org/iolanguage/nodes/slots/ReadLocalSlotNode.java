@@ -85,14 +85,19 @@ public abstract class ReadLocalSlotNode extends ReadNode {
             value = frame.getValue(getSlot());
             frame.setObject(getSlot(), value);
         }
-        if(value instanceof IoInvokable) {
-            setPrototype(IoObjectUtil.getPrototype(value));
-            setName((TruffleString)frame.getFrameDescriptor().getSlotName(getSlot()));
-            setReceiver(getTarget(frame));
-        }
         return value;
     }
 
+    @Override
+    public final ReadResult executeRead(VirtualFrame frame) {
+        Object value = executeGeneric(frame);
+        if (value instanceof IoInvokable) {
+            TruffleString name = (TruffleString) frame.getFrameDescriptor().getSlotName(getSlot());
+            return new ReadResult(getTarget(frame), IoObjectUtil.getPrototype(value), name, value);
+        }
+        return new ReadResult(null, null, null, value);
+    }
+
     public Object getTarget(VirtualFrame frame) {
         Object target = frame.getArguments()[IoLocals.TARGET_ARGUMENT_INDEX];
         return target;
@@ -43,115 +43,238 @@
  */
 package org.iolanguage.nodes.slots;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.NodeChild;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.strings.TruffleString;
 
 import org.iolanguage.nodes.IoNode;
 import org.iolanguage.nodes.util.ToMemberNode;
-import org.iolanguage.nodes.util.ToTruffleStringNode;
+import org.iolanguage.nodes.util.ToSymbolNode;
 import org.iolanguage.runtime.IoObjectUtil;
 import org.iolanguage.runtime.exceptions.UndefinedNameException;
 import org.iolanguage.runtime.objects.IoBaseObject;
+import org.iolanguage.runtime.objects.IoCall;
 import org.iolanguage.runtime.objects.IoFalse;
+import org.iolanguage.runtime.objects.IoLocals;
+import org.iolanguage.runtime.objects.IoObject;
 import org.iolanguage.runtime.objects.IoPrototype;
 import org.iolanguage.runtime.objects.IoTrue;
 
+@ImportStatic(IoPrototype.class)
+@ReportPolymorphism
 @NodeChild(value = "receiverNode", type = IoNode.class)
 @NodeChild(value = "nameNode", type = IoNode.class)
 public abstract class ReadMemberNode extends ReadNode {
     static final int LIBRARY_LIMIT = 3;
+    static final int CACHE_LIMIT = 3;
 
-    @Specialization
-    protected Object readLong(long receiver, Object name,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        setReceiver(receiver);
-        setName(toTruffleStringNode.execute(name));
-        IoBaseObject slotOwner = IoObjectUtil.lookupSlot(IoPrototype.NUMBER, getName());
-        setPrototype(slotOwner);
-        return getMember();
+    @Override
+    public final Object executeGeneric(VirtualFrame frame) {
+        return executeRead(frame).getValue();
     }
 
-    @Specialization
-    protected Object readDouble(double receiver, Object name,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        setReceiver(receiver);
-        setName(toTruffleStringNode.execute(name));
-        IoBaseObject slotOwner = IoObjectUtil.lookupSlot(IoPrototype.NUMBER, getName());
-        setPrototype(slotOwner);
-        return getMember();
+    @Specialization(guards = "isCachedName(name, cachedName)", assumptions = "cachedAssumptions", limit = "CACHE_LIMIT")
+    protected ReadResult readLongCached(long receiver, Object name,
+            @Cached("asCacheableName(name)") TruffleString cachedName,
+            @Cached("lookupPrototypeSlot(NUMBER, cachedName, false)") IoObject cachedSlotOwner,
+            @Cached(value = "getPrototypeLookupAssumptions(NUMBER, cachedSlotOwner, false)", dimensions = 1) Assumption[] cachedAssumptions,
+            @CachedLibrary(limit = "LIBRARY_LIMIT") DynamicObjectLibrary objectLibrary) {
+        return readCachedSlot(receiver, cachedName, cachedSlotOwner, objectLibrary);
     }
 
-    @Specialization
-    protected Object readBoolean(boolean receiver, Object name,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        setReceiver(receiver);
-        setName(toTruffleStringNode.execute(name));
-        IoPrototype proto = receiver? IoTrue.SINGLETON: IoFalse.SINGLETON;
-        IoBaseObject slotOwner = IoObjectUtil.lookupSlot(proto, getName());
-        setPrototype(slotOwner);
-        return getMember();
+    @Specialization(replaces = "readLongCached")
+    protected ReadResult readLong(long receiver, Object name,
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
+        return readSlot(receiver, nameTS, IoObjectUtil.lookupSlot(IoPrototype.NUMBER, nameTS));
     }
 
-    @Specialization
-    public Object readIoObject(IoBaseObject receiver, Object name,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        setReceiver(receiver);
-        setName(toTruffleStringNode.execute(name));
-        setPrototype(IoObjectUtil.lookupSlot(receiver, getName()));
-        return getMember();
+    @Specialization(guards = "isCachedName(name, cachedName)", assumptions = "cachedAssumptions", limit = "CACHE_LIMIT")
+    protected ReadResult readDoubleCached(double receiver, Object name,
+            @Cached("asCacheableName(name)") TruffleString cachedName,
+            @Cached("lookupPrototypeSlot(NUMBER, cachedName, false)") IoObject cachedSlotOwner,
+            @Cached(value = "getPrototypeLookupAssumptions(NUMBER, cachedSlotOwner, false)", dimensions = 1) Assumption[] cachedAssumptions,
+            @CachedLibrary(limit = "LIBRARY_LIMIT") DynamicObjectLibrary objectLibrary) {
+        return readCachedSlot(receiver, cachedName, cachedSlotOwner, objectLibrary);
+    }
+
+    @Specialization(replaces = "readDoubleCached")
+    protected ReadResult readDouble(double receiver, Object name,
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
+        return readSlot(receiver, nameTS, IoObjectUtil.lookupSlot(IoPrototype.NUMBER, nameTS));
+    }
+
+    @Specialization(guards = { "receiver == cachedReceiver", "isCachedName(name, cachedName)" },
+            assumptions = "cachedAssumptions", limit = "CACHE_LIMIT")
+    protected ReadResult readBooleanCached(boolean receiver, Object name,
+            @Cached("receiver") boolean cachedReceiver,
+            @Cached("asCacheableName(name)") TruffleString cachedName,
+            @Cached("lookupPrototypeSlot(getBooleanPrototype(cachedReceiver), cachedName, false)") IoObject cachedSlotOwner,
+            @Cached(value = "getPrototypeLookupAssumptions(getBooleanPrototype(cachedReceiver), cachedSlotOwner, false)", dimensions = 1) Assumption[] cachedAssumptions,
+            @CachedLibrary(limit = "LIBRARY_LIMIT") DynamicObjectLibrary objectLibrary) {
+        return readCachedSlot(receiver, cachedName, cachedSlotOwner, objectLibrary);
+    }
+
+    @Specialization(replaces = "readBooleanCached")
+    protected ReadResult readBoolean(boolean receiver, Object name,
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
+        return readSlot(receiver, nameTS, IoObjectUtil.lookupSlot(getBooleanPrototype(receiver), nameTS));
+    }
+
+    @Specialization(guards = { "isCachedName(name, cachedName)", "cachedIsLazySlot" }, limit = "CACHE_LIMIT")
+    protected ReadResult readCallSlotCached(IoCall receiver, Object name,
+            @Cached("asCacheableName(name)") TruffleString cachedName,
+            @Cached("isLazySlot(cachedName)") boolean cachedIsLazySlot,
+            @Cached("isSenderSlot(cachedName)") boolean cachedIsSender) {
+        Object value = cachedIsSender ? receiver.getSender() : receiver.getMessage();
+        return new ReadResult(receiver, receiver, cachedName, value);
+    }
+
+    @Specialization(guards = { "isCachedName(name, cachedName)", "receiver.getShape() == cachedShape",
+            "receiver.getPrototype() == cachedPrototype" }, assumptions = "cachedAssumptions", limit = "CACHE_LIMIT")
+    protected ReadResult readIoObjectCached(IoObject receiver, Object name,
+            @Cached("asCacheableName(name)") TruffleString cachedName,
+            @Cached("receiver.getShape()") Shape cachedShape,
+            @Cached("receiver.getPrototype()") IoBaseObject cachedPrototype,
+            @Cached("cachedShape.hasProperty(cachedName)") boolean cachedIsOwnSlot,
+            @Cached("lookupPrototypeSlot(cachedPrototype, cachedName, cachedIsOwnSlot)") IoObject cachedSlotOwner,
+            @Cached(value = "getPrototypeLookupAssumptions(cachedPrototype, cachedSlotOwner, cachedIsOwnSlot)", dimensions = 1) Assumption[] cachedAssumptions,
+            @CachedLibrary(limit = "LIBRARY_LIMIT") DynamicObjectLibrary objectLibrary) {
+        final IoObject slotOwner = cachedIsOwnSlot ? receiver : cachedSlotOwner;
+        return readCachedSlot(receiver, cachedName, slotOwner, objectLibrary);
+    }
+
+    @Specialization(guards = { "isCachedName(name, cachedName)",
+            "receiver.getFrame().getFrameDescriptor() == cachedDescriptor", "cachedSlotIndex >= 0" },
+            limit = "CACHE_LIMIT")
+    protected ReadResult readLocalsCached(IoLocals receiver, Object name,
+            @Cached("asCacheableName(name)") TruffleString cachedName,
+            @Cached("receiver.getFrame().getFrameDescriptor()") FrameDescriptor cachedDescriptor,
+            @Cached("findSlotIndex(cachedDescriptor, cachedName)") int cachedSlotIndex) {
+        Object value = receiver.getLocalAt(cachedSlotIndex);
+        if (value == null) {
+            throw UndefinedNameException.undefinedField(this, cachedName);
+        }
+        return new ReadResult(receiver, receiver, cachedName, value);
+    }
+
+    @ReportPolymorphism.Megamorphic
+    @Specialization(replaces = { "readIoObjectCached", "readLocalsCached" })
+    public ReadResult readIoObject(IoBaseObject receiver, Object name,
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
+        return readSlot(receiver, nameTS, IoObjectUtil.lookupSlot(receiver, nameTS));
+    }
+
+    @Specialization(guards = { "isString(receiver)", "isCachedName(name, cachedName)" },
+            assumptions = "cachedAssumptions", limit = "CACHE_LIMIT")
+    protected ReadResult readStringCached(Object receiver, Object name,
+            @Cached("asCacheableName(name)") TruffleString cachedName,
+            @Cached("lookupPrototypeSlot(IMMUTABLE_SEQUENCE, cachedName, false)") IoObject cachedSlotOwner,
+            @Cached(value = "getPrototypeLookupAssumptions(IMMUTABLE_SEQUENCE, cachedSlotOwner, false)", dimensions = 1) Assumption[] cachedAssumptions,
+            @CachedLibrary(limit = "LIBRARY_LIMIT") DynamicObjectLibrary objectLibrary) {
+        return readCachedSlot(receiver, cachedName, cachedSlotOwner, objectLibrary);
     }
 
-    @Specialization(guards = "isString(receiver)")
-    protected Object readString(Object receiver, Object name,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        setReceiver(receiver);
-        setName(toTruffleStringNode.execute(name));
-        IoBaseObject slotOwner = IoObjectUtil.lookupSlot(IoPrototype.IMMUTABLE_SEQUENCE, getName());
-        setPrototype(slotOwner);
-        return getMember();
+    @Specialization(guards = "isString(receiver)", replaces = "readStringCached")
+    protected ReadResult readString(Object receiver, Object name,
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
+        return readSlot(receiver, nameTS, IoObjectUtil.lookupSlot(IoPrototype.IMMUTABLE_SEQUENCE, nameTS));
     }
 
     @Specialization(guards = { "!isIoBaseObject(receiver)", "objects.hasMembers(receiver)" }, limit = "LIBRARY_LIMIT")
-    public Object readObject(Object receiver, Object name,
+    public ReadResult readObject(Object receiver, Object name,
             @CachedLibrary("receiver") InteropLibrary objects,
             @Cached ToMemberNode asMember,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        setReceiver(receiver);
-        setName(toTruffleStringNode.execute(name));
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
+        IoBaseObject prototype = IoObjectUtil.getPrototype(receiver);
         try {
-            setPrototype(IoObjectUtil.getPrototype(receiver));
-            return objects.readMember(receiver, asMember.execute(name));
+            return new ReadResult(receiver, prototype, nameTS, objects.readMember(receiver, asMember.execute(name)));
         } catch (UnsupportedMessageException | UnknownIdentifierException e) {
-            setPrototype(IoObjectUtil.lookupSlot(getPrototype(), getName()));
-            return getMember();
+            return readSlot(receiver, nameTS, IoObjectUtil.lookupSlot(prototype, nameTS));
         }
     }
 
-    protected Object getMember() {
+    protected ReadResult readCachedSlot(Object receiver, TruffleString name, IoObject slotOwner,
+            DynamicObjectLibrary objectLibrary) {
+        Object value = objectLibrary.getOrDefault(slotOwner, name, null);
+        if (value == null) {
+            throw UndefinedNameException.undefinedField(this, name);
+        }
+        return new ReadResult(receiver, slotOwner, name, value);
+    }
+
+    protected ReadResult readSlot(Object receiver, TruffleString name, IoBaseObject slotOwner) {
         Object value = null;
-        if (getPrototype() != null) {
-            value = IoObjectUtil.getOrDefault(getPrototype(), getName());
+        if (slotOwner != null) {
+            value = IoObjectUtil.getOrDefault(slotOwner, name);
         }
         if (value == null) {
-            throw UndefinedNameException.undefinedField(this, getName());
+            throw UndefinedNameException.undefinedField(this, name);
         }
-        return value;
+        return new ReadResult(receiver, slotOwner, name, value);
     }
 
     @Specialization
-    protected Object readObject(Object receiver, Object name,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        setReceiver(receiver);
-        setName(toTruffleStringNode.execute(name));
-        IoBaseObject slotOwner = IoObjectUtil.lookupSlot(receiver, getName());
-        setPrototype(slotOwner);
-        return getMember();
+    protected ReadResult readObject(Object receiver, Object name,
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
+        return readSlot(receiver, nameTS, IoObjectUtil.lookupSlot(receiver, nameTS));
+    }
+
+    static IoPrototype getBooleanPrototype(boolean value) {
+        return value ? IoTrue.SINGLETON : IoFalse.SINGLETON;
+    }
+
+    static TruffleString asCacheableName(Object name) {
+        return name instanceof TruffleString ? (TruffleString) name : null;
+    }
+
+    static boolean isCachedName(Object name, TruffleString cachedName) {
+        return name == cachedName;
+    }
+
+    static IoObject lookupPrototypeSlot(IoBaseObject prototype, TruffleString name, boolean isOwnSlot) {
+        if (isOwnSlot || prototype == null || name == null) {
+            return null;
+        }
+        IoBaseObject slotOwner = IoObjectUtil.lookupSlot(prototype, name);
+        return slotOwner instanceof IoObject ? (IoObject) slotOwner : null;
+    }
+
+    static Assumption[] getPrototypeLookupAssumptions(IoBaseObject prototype, IoObject slotOwner, boolean isOwnSlot) {
+        if (isOwnSlot) {
+            return new Assumption[0];
+        }
+        return IoObjectUtil.getLookupAssumptions(prototype, slotOwner);
+    }
+
+    static int findSlotIndex(FrameDescriptor frameDescriptor, TruffleString name) {
+        return name == null ? -1 : IoLocals.findSlotIndex(frameDescriptor, name);
+    }
+
+    static boolean isLazySlot(TruffleString name) {
+        return name != null && IoCall.isLazySlot(name);
+    }
+
+    static boolean isSenderSlot(TruffleString name) {
+        return name != null && IoCall.isSenderSlot(name);
     }
 
     static boolean isString(Object a) {
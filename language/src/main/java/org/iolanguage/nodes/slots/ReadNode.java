@@ -43,37 +43,15 @@
  */
 package org.iolanguage.nodes.slots;
 
-import com.oracle.truffle.api.strings.TruffleString;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 import org.iolanguage.nodes.IoNode;
-import org.iolanguage.runtime.objects.IoBaseObject;
 
 public abstract class ReadNode extends IoNode {
-    private Object receiver = null;
-    private IoBaseObject prototype = null;
-    private TruffleString name = null;
 
-    public Object getReceiver() {
-        return receiver;
-    }
-
-    public IoBaseObject getPrototype() {
-        return prototype;
-    }
-
-    public TruffleString getName() {
-        return name;
-    }
-
-    protected void setReceiver(final Object receiver) {
-        this.receiver = receiver;
-    }
-
-    protected void setPrototype(final IoBaseObject prototype) {
-        this.prototype = prototype;
-    }
-
-    protected void setName(final TruffleString name) {
-        this.name = name;
-    }
+    /**
+     * Reads the value and returns it together with the receiver and slot owner it was found on,
+     * so that sends can activate it without the node keeping any of them.
+     */
+    public abstract ReadResult executeRead(VirtualFrame frame);
 }
@@ -53,8 +53,12 @@ public class ReadTargetNode extends ReadNode {
 
     @Override
     public Object executeGeneric(VirtualFrame frame) {
-        Object target = frame.getArguments()[IoLocals.TARGET_ARGUMENT_INDEX];
-        setReceiver(target);
-        return target;
+        return frame.getArguments()[IoLocals.TARGET_ARGUMENT_INDEX];
+    }
+
+    @Override
+    public final ReadResult executeRead(VirtualFrame frame) {
+        Object target = executeGeneric(frame);
+        return new ReadResult(target, null, null, target);
     }
 }
@@ -43,6 +43,9 @@
  */
 package org.iolanguage.nodes.slots;
 
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.NodeField;
@@ -57,6 +60,7 @@ import com.oracle.truffle.api.strings.TruffleString;
 
 import org.iolanguage.nodes.IoNode;
 import org.iolanguage.nodes.interop.NodeObjectDescriptor;
+import org.iolanguage.runtime.objects.IoLocals;
 
 /**
  * Node to write a local variable to a function's {@link VirtualFrame frame}. The Truffle frame API
@@ -67,6 +71,10 @@ import org.iolanguage.nodes.interop.NodeObjectDescriptor;
 @NodeField(name = "nameNode", type = IoNode.class)
 public abstract class WriteLocalSlotNode extends IoNode implements WriteNode {
 
+    static final FrameSlotKind LONG = FrameSlotKind.Long;
+    static final FrameSlotKind DOUBLE = FrameSlotKind.Double;
+    static final FrameSlotKind BOOLEAN = FrameSlotKind.Boolean;
+
     /**
      * Returns the descriptor of the accessed local variable. The implementation of this method is
      * created by the Truffle DSL based on the {@link NodeField} annotation on the class.
@@ -85,37 +93,33 @@ public abstract class WriteLocalSlotNode extends IoNode implements WriteNode {
 
     /**
      * Specialized method to write a primitive {@code long} value. This is only possible if the
-     * local variable also has currently the type {@code long} or was never written before,
-     * therefore a Truffle DSL {@link #isLongOrIllegal(VirtualFrame) custom guard} is specified.
+     * local variable has the type {@code long} after generalizing its kind with the kind of the
+     * value. The cached kind stays valid as long as the slot's kind assumption does.
      */
-    @Specialization(guards = "isLongOrIllegal(frame)")
-    protected long writeLong(VirtualFrame frame, long value) {
-        /* Initialize type on first write of the local variable. No-op if kind is already Long. */
-        frame.getFrameDescriptor().setSlotKind(getSlot(), FrameSlotKind.Long);
-
+    @Specialization(guards = "cachedKind == LONG", assumptions = "cachedKindAssumption")
+    protected long writeLong(VirtualFrame frame, long value,
+            @Cached("generalizeSlotKind(frame, LONG)") FrameSlotKind cachedKind,
+            @Cached("getSlotKindAssumption(frame)") Assumption cachedKindAssumption) {
         frame.setLong(getSlot(), value);
         return value;
     }
 
     /**
-     * Specialized method to write a primitive {@code double} value. This is only possible if the
-     * local variable also has currently the type {@code double} or was never written before,
-     * therefore a Truffle DSL {@link #isDoubleOrIllegal(VirtualFrame) custom guard} is specified.
+     * Specialized method to write a primitive {@code double} value, see
+     * {@link #writeLong(VirtualFrame, long, FrameSlotKind, Assumption)}.
      */
-    @Specialization(guards = "isDoubleOrIllegal(frame)")
-    protected double writeDouble(VirtualFrame frame, double value) {
-        /* Initialize type on first write of the local variable. No-op if kind is already Double. */
-        frame.getFrameDescriptor().setSlotKind(getSlot(), FrameSlotKind.Double);
-
+    @Specialization(guards = "cachedKind == DOUBLE", assumptions = "cachedKindAssumption")
+    protected double writeDouble(VirtualFrame frame, double value,
+            @Cached("generalizeSlotKind(frame, DOUBLE)") FrameSlotKind cachedKind,
+            @Cached("getSlotKindAssumption(frame)") Assumption cachedKindAssumption) {
         frame.setDouble(getSlot(), value);
         return value;
     }
 
-    @Specialization(guards = "isBooleanOrIllegal(frame)")
-    protected boolean writeBoolean(VirtualFrame frame, boolean value) {
-        /* Initialize type on first write of the local variable. No-op if kind is already Long. */
-        frame.getFrameDescriptor().setSlotKind(getSlot(), FrameSlotKind.Boolean);
-
+    @Specialization(guards = "cachedKind == BOOLEAN", assumptions = "cachedKindAssumption")
+    protected boolean writeBoolean(VirtualFrame frame, boolean value,
+            @Cached("generalizeSlotKind(frame, BOOLEAN)") FrameSlotKind cachedKind,
+            @Cached("getSlotKindAssumption(frame)") Assumption cachedKindAssumption) {
         frame.setBoolean(getSlot(), value);
         return value;
     }
@@ -130,17 +134,16 @@ public abstract class WriteLocalSlotNode extends IoNode implements WriteNode {
      * {@link Object}, it is guaranteed to never fail, i.e., once we are in this specialization the
      * node will never be re-specialized.
      */
-    @Specialization(replaces = {"writeLong", "writeBoolean"})
+    @Specialization(replaces = { "writeLong", "writeDouble", "writeBoolean" })
     protected Object write(VirtualFrame frame, Object value) {
         /*
          * Regardless of the type before, the new and final type of the local variable is Object.
-         * Changing the slot kind also discards compiled code, because the variable type is
-         * important when the compiler optimizes a method.
-         *
-         * No-op if kind is already Object.
+         * Slot kinds only generalize, so this happens at most once per slot.
          */
-        frame.getFrameDescriptor().setSlotKind(getSlot(), FrameSlotKind.Object);
-
+        if (frame.getFrameDescriptor().getSlotKind(getSlot()) != FrameSlotKind.Object) {
+            CompilerDirectives.transferToInterpreter();
+            generalizeSlotKind(frame, FrameSlotKind.Object);
+        }
         frame.setObject(getSlot(), value);
         return value;
     }
@@ -148,27 +151,12 @@ public abstract class WriteLocalSlotNode extends IoNode implements WriteNode {
     @Override
     public abstract Object executeWrite(VirtualFrame frame, Object value);
 
-    /**
-     * Guard function that the local variable has the type {@code long}.
-     *
-     * @param frame The parameter seems unnecessary, but it is required: Without the parameter, the
-     *            Truffle DSL would not check the guard on every execution of the specialization.
-     *            Guards without parameters are assumed to be pure, but our guard depends on the
-     *            slot kind which can change.
-     */
-    protected boolean isLongOrIllegal(VirtualFrame frame) {
-        final FrameSlotKind kind = frame.getFrameDescriptor().getSlotKind(getSlot());
-        return kind == FrameSlotKind.Long || kind == FrameSlotKind.Illegal;
-    }
-
-    protected boolean isDoubleOrIllegal(VirtualFrame frame) {
-        final FrameSlotKind kind = frame.getFrameDescriptor().getSlotKind(getSlot());
-        return kind == FrameSlotKind.Double || kind == FrameSlotKind.Illegal;
+    protected final FrameSlotKind generalizeSlotKind(VirtualFrame frame, FrameSlotKind kind) {
+        return IoLocals.generalizeSlotKind(frame.getFrameDescriptor(), getSlot(), kind);
     }
 
-    protected boolean isBooleanOrIllegal(VirtualFrame frame) {
-        final FrameSlotKind kind = frame.getFrameDescriptor().getSlotKind(getSlot());
-        return kind == FrameSlotKind.Boolean || kind == FrameSlotKind.Illegal;
+    protected final Assumption getSlotKindAssumption(VirtualFrame frame) {
+        return IoLocals.getSlotKindAssumption(frame.getFrameDescriptor(), getSlot());
     }
 
     @Override
@@ -47,7 +47,9 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
@@ -60,13 +62,15 @@ import com.oracle.truffle.api.strings.TruffleString;
 import org.iolanguage.NotImplementedException;
 import org.iolanguage.nodes.IoNode;
 import org.iolanguage.nodes.util.ToMemberNode;
-import org.iolanguage.nodes.util.ToTruffleStringNode;
-import org.iolanguage.nodes.util.ToTruffleStringNodeGen;
+import org.iolanguage.nodes.util.ToSymbolNode;
+import org.iolanguage.nodes.util.ToSymbolNodeGen;
 import org.iolanguage.runtime.IoObjectUtil;
 import org.iolanguage.runtime.exceptions.UndefinedNameException;
 import org.iolanguage.runtime.objects.IoBaseObject;
+import org.iolanguage.runtime.objects.IoLocals;
 
 @NodeInfo(shortName = "setSlot")
+@ReportPolymorphism
 @NodeChild("valueNode")
 @NodeChild("receiverNode")
 @NodeChild("nameNode")
@@ -74,13 +78,24 @@ import org.iolanguage.runtime.objects.IoBaseObject;
 public abstract class WriteMemberNode extends IoNode implements WriteNode {
 
     static final int LIBRARY_LIMIT = 3;
+    static final int CACHE_LIMIT = 3;
 
     protected abstract boolean getInitialize();
 
-    @Specialization
+    @Specialization(guards = { "isCachedName(name, cachedName)",
+            "receiver.getFrame().getFrameDescriptor() == cachedDescriptor", "cachedSlotIndex >= 0" },
+            limit = "CACHE_LIMIT")
+    protected Object writeLocalsCached(Object value, IoLocals receiver, Object name,
+            @Cached("asCacheableName(name)") TruffleString cachedName,
+            @Cached("receiver.getFrame().getFrameDescriptor()") FrameDescriptor cachedDescriptor,
+            @Cached("findSlotIndex(cachedDescriptor, cachedName)") int cachedSlotIndex) {
+        return receiver.setLocalAt(cachedSlotIndex, value);
+    }
+
+    @Specialization(replaces = "writeLocalsCached")
     protected Object writeIOObject(Object value, IoBaseObject receiver, Object name,
-            @Cached ToTruffleStringNode toTruffleStringNode) {
-        TruffleString nameTS = toTruffleStringNode.execute(name);
+            @Cached ToSymbolNode toSymbolNode) {
+        TruffleString nameTS = toSymbolNode.execute(name);
         final IoBaseObject slotOwner;
         if (getInitialize()) {
             slotOwner = receiver;
@@ -101,8 +116,8 @@ public abstract class WriteMemberNode extends IoNode implements WriteNode {
         try {
             objectLibrary.writeMember(receiver, asMember.execute(name), value);
         } catch (UnsupportedMessageException | UnknownIdentifierException | UnsupportedTypeException e) {
-            ToTruffleStringNode toTruffleStringNode = ToTruffleStringNodeGen.create();
-            TruffleString nameTS = toTruffleStringNode.execute(name);
+            ToSymbolNode toSymbolNode = ToSymbolNodeGen.getUncached();
+            TruffleString nameTS = toSymbolNode.execute(name);
             final IoBaseObject slotOwner;
             if (getInitialize()) {
                 slotOwner = IoObjectUtil.getPrototype(receiver);
@@ -122,6 +137,18 @@ public abstract class WriteMemberNode extends IoNode implements WriteNode {
         throw new NotImplementedException();
     }
 
+    static TruffleString asCacheableName(Object name) {
+        return name instanceof TruffleString ? (TruffleString) name : null;
+    }
+
+    static boolean isCachedName(Object name, TruffleString cachedName) {
+        return name == cachedName;
+    }
+
+    static int findSlotIndex(FrameDescriptor frameDescriptor, TruffleString name) {
+        return name == null ? -1 : IoLocals.findSlotIndex(frameDescriptor, name);
+    }
+
     static boolean isIoBaseObject(Object receiver) {
         return receiver instanceof IoBaseObject;
     }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ */
+/*
+ * Copyright (c) 2015, 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.nodes.util;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateUncached;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.strings.TruffleString;
+
+import org.iolanguage.IoLanguage;
+import org.iolanguage.nodes.IoTypes;
+import org.iolanguage.runtime.Symbols;
+
+/**
+ * The node to normalize a slot name to its canonical {@link TruffleString}, see
+ * {@link Symbols#intern(TruffleString)}. Names that reach the same node repeatedly are resolved
+ * once and then matched by content, which is an identity check for names that are already
+ * canonical; only nodes that see more than LIMIT different names intern on every call.
+ */
+@TypeSystemReference(IoTypes.class)
+@GenerateUncached
+@ImportStatic({ IoLanguage.class, Symbols.class })
+public abstract class ToSymbolNode extends Node {
+
+    static final int LIMIT = 8;
+
+    public abstract TruffleString execute(Object value);
+
+    @Specialization(guards = "equalNode.execute(value, cachedSymbol, STRING_ENCODING)", limit = "LIMIT")
+    protected static TruffleString fromCached(TruffleString value,
+            @Cached("intern(value)") TruffleString cachedSymbol,
+            @Cached TruffleString.EqualNode equalNode) {
+        return cachedSymbol;
+    }
+
+    @Specialization(replaces = "fromCached")
+    protected static TruffleString fromTruffleString(TruffleString value) {
+        return Symbols.intern(value);
+    }
+
+    @Specialization(guards = "!isTruffleString(value)")
+    protected static TruffleString fromObject(Object value,
+            @Cached ToTruffleStringNode toTruffleStringNode) {
+        return Symbols.intern(toTruffleStringNode.execute(value));
+    }
+
+    static boolean isTruffleString(Object value) {
+        return value instanceof TruffleString;
+    }
+
+}
@@ -60,6 +60,7 @@ import org.iolanguage.nodes.IoTypes;
 import org.iolanguage.runtime.Symbols;
 import org.iolanguage.runtime.objects.IoBigInteger;
 import org.iolanguage.runtime.objects.IoNil;
+import org.iolanguage.runtime.objects.IoSequence;
 
 /**
  * The node to normalize any value to an IO value. This is useful to reduce the number of values
@@ -91,6 +92,11 @@ public abstract class ToTruffleStringNode extends Node {
         return value;
     }
 
+    @Specialization
+    protected static TruffleString fromSequence(IoSequence value) {
+        return value.toTruffleString();
+    }
+
     @Specialization
     protected static TruffleString fromBoolean(boolean value) {
         return value ? Symbols.TRUE : Symbols.FALSE;
@@ -214,6 +214,11 @@ public class IoLanguageNodeVisitor extends IoLanguageBaseVisitor<IoNode> {
             case "=":
                 initialize = false;
                 break;
+            case "+=":
+            case "-=":
+            case "*=":
+            case "/=":
+                return visitUpdateAssignment(ctx);
             default:
                 throw new RuntimeException("unexpected operation: " + op);
         }
@@ -237,6 +242,28 @@ public class IoLanguageNodeVisitor extends IoLanguageBaseVisitor<IoNode> {
         return resultNode;
     }
 
+    /**
+     * {@code name += value} sends the message {@code +=} with {@code value} to the object in
+     * {@code name}, which updates itself in place.
+     */
+    private IoNode visitUpdateAssignment(final AssignmentContext ctx) {
+        IoNode receiverNode = null;
+        if (ctx.subExpression() != null) {
+            receiverNode = visitSubExpression(ctx.subExpression());
+            assert receiverNode != null;
+        }
+        int startPos = ctx.start.getStartIndex();
+        int length = ctx.stop.getStopIndex() - startPos + 1;
+        IoNode targetNode = factory.createInvokeSlot(receiverNode, visitIdentifier(ctx.name), new ArrayList<>(),
+                startPos, length);
+        IoNode valueNode = visitOperation(ctx.operation());
+        assert valueNode != null;
+        IoNode resultNode = factory.createInvokeSlot(targetNode, factory.createSymbolLiteral(ctx.assign, false),
+                List.of(valueNode), startPos, length);
+        assert resultNode != null;
+        return resultNode;
+    }
+
     @Override
     public IoNode visitSubExpression(final SubExpressionContext ctx) {
         if (ctx.message() != null) {
@@ -457,7 +484,7 @@ public class IoLanguageNodeVisitor extends IoLanguageBaseVisitor<IoNode> {
             return resultNode;
         }
         List<IoNode> argumentNodes = new ArrayList<>();
-        final IoNode nameNode = factory.createStringLiteral(ctx.start, false);
+        final IoNode nameNode = factory.createSymbolLiteral(ctx.start, false);
         resultNode = factory.createInvokeSlot(receiverNode, nameNode, argumentNodes, startPos, length);
         assert resultNode != null;
         return resultNode;
@@ -478,7 +505,7 @@ public class IoLanguageNodeVisitor extends IoLanguageBaseVisitor<IoNode> {
         if (ctx.name == null) {
             nameNode = visitExpression(ctx.expression());
         } else {
-            nameNode = factory.createStringLiteral(ctx.name, true);
+            nameNode = factory.createSymbolLiteral(ctx.name, true);
         }
         IoNode resultNode = null;
         if (receiverNode == null) {
@@ -489,7 +516,7 @@ public class IoLanguageNodeVisitor extends IoLanguageBaseVisitor<IoNode> {
         }
         List<IoNode> argumentNodes = new ArrayList<>();
         argumentNodes.add(nameNode);
-        final IoNode getSlotNameNode = factory.createStringLiteral(ctx.start, false);
+        final IoNode getSlotNameNode = factory.createSymbolLiteral(ctx.start, false);
         resultNode = factory.createInvokeSlot(receiverNode, getSlotNameNode, argumentNodes, startPos, length);
         assert resultNode != null;
         return resultNode;
@@ -501,7 +528,7 @@ public class IoLanguageNodeVisitor extends IoLanguageBaseVisitor<IoNode> {
         if (ctx.name == null) {
             nameNode = visitExpression(ctx.expression(0));
         } else {
-            nameNode = factory.createStringLiteral(ctx.name, true);
+            nameNode = factory.createSymbolLiteral(ctx.name, true);
         }
         assert nameNode != null;
         int startPos = ctx.start.getStartIndex();
@@ -562,13 +589,20 @@ public class IoLanguageNodeVisitor extends IoLanguageBaseVisitor<IoNode> {
 
     public IoNode visitForeachMessage(ForeachMessageContext ctx, IoNode receiverNode) {
         factory.startLoop();
-        IoNode nameNode = visitIdentifier(ctx.identifier());
         int startPos = ctx.start.getStartIndex();
         int length = ctx.stop.getStopIndex() - startPos + 1;
+        IoNode writeKeyNode = null;
+        if (ctx.key != null) {
+            IoNode keyNameNode = visitIdentifier(ctx.key);
+            IoNode keyNilNode = factory.createNil(startPos, length);
+            writeKeyNode = factory.createWriteSlot(null, keyNameNode, keyNilNode, startPos, length, true);
+        }
+        IoNode nameNode = visitIdentifier(ctx.counter);
         IoNode nilNode = factory.createNil(startPos, length);
         IoNode writeValueNode = factory.createWriteSlot(null, nameNode, nilNode, startPos, length, true);
         IoNode bodyNode = visitExpression(ctx.body);
-        IoNode resultNode = factory.createForeach(receiverNode, writeValueNode, bodyNode, startPos, length);
+        IoNode resultNode = factory.createForeach(receiverNode, writeKeyNode, writeValueNode, bodyNode, startPos,
+                length);
         assert resultNode != null;
         return factory.createLoopExpression(resultNode, startPos, length);
     }
@@ -730,12 +764,12 @@ public class IoLanguageNodeVisitor extends IoLanguageBaseVisitor<IoNode> {
 
     @Override
     public IoNode visitIdentifier(IdentifierContext ctx) {
-        return factory.createStringLiteral(ctx.start, false);
+        return factory.createSymbolLiteral(ctx.start, false);
     }
 
     @Override
     public IoNode visitOperator(OperatorContext ctx) {
-        return factory.createStringLiteral(ctx.start, false);
+        return factory.createSymbolLiteral(ctx.start, false);
     }
 
     @Override
@@ -105,7 +105,9 @@ import org.iolanguage.nodes.slots.ReadTargetNode;
 import org.iolanguage.nodes.slots.WriteLocalSlotNodeGen;
 import org.iolanguage.nodes.slots.WriteMemberNodeGen;
 import org.iolanguage.nodes.util.UnboxNodeGen;
+import org.iolanguage.runtime.IoState;
 import org.iolanguage.runtime.Symbols;
+import org.iolanguage.runtime.objects.IoLocals;
 
 public class NodeFactory {
 
@@ -115,6 +117,7 @@ public class NodeFactory {
         protected boolean inLoop;
         protected int argumentCount;
         protected final List<TruffleString> locals;
+        protected int auxiliarySlotCount;
 
         Scope(final Scope outer, int bodyStartPos) {
             this.outer = outer;
@@ -124,6 +127,14 @@ public class NodeFactory {
             this.locals = new ArrayList<>();
         }
 
+        /**
+         * Reserves an auxiliary frame slot for state a node keeps per frame, added to the frame
+         * descriptor when it is built so that every frame has room for it.
+         */
+        int addAuxiliarySlot() {
+            return auxiliarySlotCount++;
+        }
+
         boolean hasLocals() {
             return !locals.isEmpty();
         }
@@ -166,7 +177,13 @@ public class NodeFactory {
                 Integer argumentIndex = i < argumentCount ? i : null;
                 frameDescriptorBuilder.addSlot(FrameSlotKind.Illegal, locals.get(i), argumentIndex);
             }
-            return frameDescriptorBuilder.build();
+            frameDescriptorBuilder.info(IoLocals.SlotIndex.create(locals));
+            final FrameDescriptor frameDescriptor = frameDescriptorBuilder.build();
+            for (int i = 0; i < auxiliarySlotCount; i++) {
+                int auxiliarySlot = frameDescriptor.findOrAddAuxiliarySlot(new Object());
+                assert auxiliarySlot == i;
+            }
+            return frameDescriptor;
         }
 
         TruffleString[] getArgumentNames() {
@@ -185,14 +202,19 @@ public class NodeFactory {
     private final static TruffleString CALL_SYMBOL = Symbols.constant("call");
     private final static TruffleString TARGET_SYMBOL = Symbols.constant("target");
     private final static TruffleString SENDER_SYMBOL = Symbols.constant("sender");
+    private final static TruffleString DO_SYMBOL = Symbols.constant("do");
 
     private final Source source;
     private final TruffleString sourceString;
     private final IoLanguage language;
+    private final IoState state;
+    private final boolean splitting;
     private Scope currentScope;
 
     public NodeFactory(IoLanguage language, Source source) {
         this.language = language;
+        this.state = IoLanguage.getState();
+        this.splitting = state.getStateOptions().splitting;
         this.source = source;
         this.sourceString = Symbols.fromJavaString(source.getCharacters().toString());
     }
@@ -226,14 +248,16 @@ public class NodeFactory {
         methodBodyNode.setSourceSection(methodSrc.getCharIndex(), methodSrc.getCharLength());
         final IoRootNode rootNode = new IoRootNode(language, currentScope.buildFrameDescriptor(),
                 methodBodyNode, methodSrc);
-        final FunctionLiteralNode functionLiteralNode = new FunctionLiteralNode(Symbols.fromJavaString("do"), rootNode);
+        rootNode.setCloningAllowed(splitting);
+        state.addSlotKindRoot(rootNode);
+        final FunctionLiteralNode functionLiteralNode = new FunctionLiteralNode(DO_SYMBOL, rootNode);
         leaveCurrentScope();
         functionLiteralNode.setSourceSection(startPos, length);
         return functionLiteralNode;
     }
 
     public int addFormalParameter(Token nameToken) {
-        TruffleString name = asTruffleString(nameToken, false);
+        TruffleString name = asSymbol(nameToken, false);
         return currentScope.addArgument(name);
     }
 
@@ -278,6 +302,8 @@ public class NodeFactory {
         methodBodyNode.setSourceSection(methodSrc.getCharIndex(), methodSrc.getCharLength());
         final IoRootNode rootNode = new IoRootNode(language, currentScope.buildFrameDescriptor(),
                 methodBodyNode, methodSrc);
+        rootNode.setCloningAllowed(splitting);
+        state.addSlotKindRoot(rootNode);
         return rootNode;
     }
 
@@ -625,12 +651,14 @@ public class NodeFactory {
         return null;
     }
 
-    public IoNode createForeach(IoNode receiverNode, IoNode writeValueNode, IoNode bodyNode, int startPos, int length) {
+    public IoNode createForeach(IoNode receiverNode, IoNode writeKeyNode, IoNode writeValueNode, IoNode bodyNode,
+            int startPos, int length) {
         if (writeValueNode != null && bodyNode != null) {
             if(receiverNode == null) {
                 throw new NotImplementedException();
             }
-            final IoNode result = ForeachNodeGen.create(receiverNode, writeValueNode, bodyNode);
+            final IoNode result = ForeachNodeGen.create(writeKeyNode, writeValueNode, bodyNode,
+                    currentScope.addAuxiliarySlot(), receiverNode);
             result.setSourceSection(startPos, length);
             result.addExpressionTag();
             return result;
@@ -694,7 +722,23 @@ public class NodeFactory {
         return result;
     }
 
+    public StringLiteralNode createSymbolLiteral(Token literalToken, boolean removeQuotes) {
+        final StringLiteralNode result = new StringLiteralNode(asSymbol(literalToken, removeQuotes));
+        srcFromToken(result, literalToken);
+        result.addExpressionTag();
+        return result;
+    }
+
+    private TruffleString asSymbol(Token literalToken, boolean removeQuotes) {
+        /* Interned names outlive the parse, so they must not be lazy views of the whole source */
+        return Symbols.intern(asTruffleString(literalToken, removeQuotes, false));
+    }
+
     private TruffleString asTruffleString(Token literalToken, boolean removeQuotes) {
+        return asTruffleString(literalToken, removeQuotes, true);
+    }
+
+    private TruffleString asTruffleString(Token literalToken, boolean removeQuotes, boolean lazy) {
         int fromIndex = literalToken.getStartIndex();
         int length = literalToken.getStopIndex() - literalToken.getStartIndex() + 1;
         if (removeQuotes) {
@@ -704,7 +748,7 @@ public class NodeFactory {
             fromIndex += 1;
             length -= 2;
         }
-        return sourceString.substringByteIndexUncached(fromIndex * 2, length * 2, IoLanguage.STRING_ENCODING, true);
+        return sourceString.substringUncached(fromIndex, length, IoLanguage.STRING_ENCODING, lazy);
     }
 
     public IoNode createNumericLiteral(Token literalToken) {
@@ -843,7 +887,7 @@ public class NodeFactory {
         }
         ReadNode valueNode = createReadSlot(receiverNode, nameNode, startPos, length);
         assert valueNode != null;
-        final IoNode result = InvokeNodeGen.create(valueNode, argumentNodes.toArray(new IoNode[argumentNodes.size()]));
+        final IoNode result = InvokeNodeGen.create(argumentNodes.toArray(new IoNode[argumentNodes.size()]), valueNode);
         result.setSourceSection(startPos, length);
         result.addExpressionTag();
         return result;
@@ -856,7 +900,7 @@ public class NodeFactory {
         valueNode.setSourceSection(startPos, length);
         valueNode.addExpressionTag();
         assert valueNode != null;
-        final IoNode result = InvokeNodeGen.create(valueNode, new IoNode[0]);
+        final IoNode result = InvokeNodeGen.create(new IoNode[0], valueNode);
         result.setSourceSection(startPos, length);
         result.addExpressionTag();
         return result;
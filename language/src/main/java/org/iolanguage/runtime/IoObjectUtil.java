@@ -40,14 +40,15 @@
  */
 package org.iolanguage.runtime;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.strings.TruffleString;
 
 import org.iolanguage.IoLanguage;
@@ -80,6 +81,7 @@ public final class IoObjectUtil {
 
     public static boolean hasSlot(IoBaseObject object, Object key) {
         if (object instanceof IoObject) {
+            ((IoObject) object).materializeSlots();
             return hasSlot((IoObject) object, key);
         }
         if (object instanceof IoLocals) {
@@ -110,6 +112,7 @@ public final class IoObjectUtil {
 
     public static Object getOrDefault(IoBaseObject objectOrProto, Object key, Object defaultValue) {
         if (objectOrProto instanceof IoObject) {
+            ((IoObject) objectOrProto).materializeSlots();
             return getOrDefault((IoObject) objectOrProto, key, defaultValue);
         }
         if (objectOrProto instanceof IoLocals) {
@@ -153,13 +156,19 @@ public final class IoObjectUtil {
     }
 
     public static IoBaseObject getPrototype(Object object) {
-        InteropLibrary interop = InteropLibrary.getFactory().getUncached(object);
+        if (object instanceof Long || object instanceof Double) {
+            return IoPrototype.NUMBER;
+        }
+        if (object instanceof Boolean) {
+            return ((Boolean) object ? IoTrue.SINGLETON : IoFalse.SINGLETON).getPrototype();
+        }
         if (object instanceof String) {
             return IoPrototype.IMMUTABLE_SEQUENCE;
         }
         if (object instanceof TruffleString) {
             return IoPrototype.IMMUTABLE_SEQUENCE;
         }
+        InteropLibrary interop = InteropLibrary.getFactory().getUncached(object);
         if (interop.fitsInLong(object)) {
             return IoPrototype.NUMBER;
         }
@@ -187,16 +196,31 @@ public final class IoObjectUtil {
         return hasPrototype(objectOrProto, prototype);
     }
 
+    /*
+     * Prototype chains may contain cycles (Object -> Lobby -> Protos Core -> Object), so the walks
+     * below use Brent's cycle detection: a mark is moved forward every power of two steps, and
+     * meeting it again means a whole cycle has been visited. This needs no allocation and visits
+     * every object of the chain at most twice.
+     */
+
     public static boolean hasPrototype(IoBaseObject obj, Object prototype) {
-        List<IoBaseObject> visitedProtos = new ArrayList<IoBaseObject>();
         IoBaseObject object = obj;
-        while (!visitedProtos.contains(object)) {
-            assert object != null;
+        IoBaseObject mark = obj;
+        int power = 1;
+        int steps = 0;
+        while (object != null) {
             if (object == prototype) {
                 return true;
             }
-            visitedProtos.add(object);
             object = object.getPrototype();
+            if (object == mark) {
+                return false;
+            }
+            if (++steps == power) {
+                mark = object;
+                power <<= 1;
+                steps = 0;
+            }
         }
         return false;
     }
@@ -289,19 +313,95 @@ public final class IoObjectUtil {
     }
 
     public static IoBaseObject lookupSlot(IoBaseObject obj, Object key) {
-        List<IoBaseObject> visitedProtos = new ArrayList<IoBaseObject>();
+        assert obj != null;
+        if (hasSlot(obj, key)) {
+            return obj;
+        }
+        IoBaseObject prototype = obj.getPrototype();
+        if (prototype instanceof IoObject) {
+            return lookupSlotCached((IoObject) prototype, key);
+        }
+        return lookupSlotUncached(prototype, key);
+    }
+
+    @TruffleBoundary
+    private static IoBaseObject lookupSlotCached(IoObject prototype, Object key) {
+        final SlotLookupCache cache = getSlotLookupCache();
+        if (cache == null) {
+            return lookupSlotUncached(prototype, key);
+        }
+        IoBaseObject slotOwner = cache.get(prototype, key);
+        if (slotOwner != null) {
+            return slotOwner;
+        }
+        final Assumption assumption = cache.getAssumption();
+        slotOwner = lookupSlotUncached(prototype, key);
+        if (slotOwner != null && markLookupPath(prototype, slotOwner)) {
+            cache.put(assumption, prototype, key, slotOwner);
+        }
+        return slotOwner;
+    }
+
+    private static IoBaseObject lookupSlotUncached(IoBaseObject obj, Object key) {
         IoBaseObject object = obj;
-        while (!visitedProtos.contains(object)) {
-            assert object != null;
+        IoBaseObject mark = obj;
+        int power = 1;
+        int steps = 0;
+        while (object != null) {
             if (hasSlot(object, key)) {
                 return object;
             }
-            visitedProtos.add(object);
             object = object.getPrototype();
+            if (object == mark) {
+                return null;
+            }
+            if (++steps == power) {
+                mark = object;
+                power <<= 1;
+                steps = 0;
+            }
         }
         return null;
     }
 
+    /**
+     * Flags every object between prototype and slotOwner so that changing any of them flushes the
+     * lookup cache. Returns false if the path crosses an object that cannot be flagged.
+     */
+    private static boolean markLookupPath(IoObject prototype, IoBaseObject slotOwner) {
+        IoBaseObject object = prototype;
+        while (object instanceof IoObject) {
+            if (object == slotOwner) {
+                IoObject current = prototype;
+                while (true) {
+                    current.markInLookupCache();
+                    if (current == slotOwner) {
+                        return true;
+                    }
+                    current = (IoObject) current.getPrototype();
+                }
+            }
+            object = object.getPrototype();
+        }
+        return false;
+    }
+
+    public static void flushLookupCache() {
+        SlotLookupCache cache = getSlotLookupCache();
+        if (cache != null) {
+            cache.flush();
+        }
+    }
+
+    /**
+     * The cache of the current language, null while a context is being created. The language
+     * flushes its cache once the new context is set up.
+     */
+    private static SlotLookupCache getSlotLookupCache() {
+        IoLanguage language = IoLanguage.get(null);
+        return language == null ? null : language.getSlotLookupCache();
+    }
+
     public static Object updateSlot(Object obj, Object key, Object value) {
         IoBaseObject objectOrProto = asIoBaseObject(obj);
         if (objectOrProto == null) {
@@ -342,8 +442,43 @@ public final class IoObjectUtil {
     }
 
     public static Object put(DynamicObjectLibrary lib, IoObject object, Object key, Object value) {
+        Shape shape = object.getShape();
         lib.put(object, key, value);
+        if (object.getShape() != shape) {
+            object.invalidateLayout();
+        }
         return value;
     }
 
+    /**
+     * Collects the layout assumptions of every object visited when looking up a slot from object
+     * up to and including slotOwner. If the path cannot be guarded (the slot was not found or the
+     * walk crosses an {@link IoLocals}), the returned array holds an invalid assumption so that
+     * the lookup is never cached.
+     */
+    public static Assumption[] getLookupAssumptions(IoBaseObject object, IoBaseObject slotOwner) {
+        if (slotOwner == null) {
+            return new Assumption[] { Assumption.NEVER_VALID };
+        }
+        int depth = 0;
+        IoBaseObject current = object;
+        while (current != slotOwner) {
+            if (!(current instanceof IoObject)) {
+                return new Assumption[] { Assumption.NEVER_VALID };
+            }
+            current = current.getPrototype();
+            depth++;
+        }
+        if (!(slotOwner instanceof IoObject)) {
+            return new Assumption[] { Assumption.NEVER_VALID };
+        }
+        Assumption[] assumptions = new Assumption[depth + 1];
+        current = object;
+        for (int i = 0; i <= depth; i++) {
+            assumptions[i] = ((IoObject) current).getLayoutAssumption();
+            current = current.getPrototype();
+        }
+        return assumptions;
+    }
+
 }
@@ -62,6 +62,16 @@ public class IoOptions {
     @Option(name = IO_NUMBER_LEGACY_FORMAT_NAME, category = OptionCategory.USER, help = IO_NUMBER_LEGACY_FORMAT_HELP) //
     public static final OptionKey<Boolean> IoNumberLegacyFormat = new OptionKey<>(false);
 
+    public static final String IO_SPLITTING_NAME = "io-splitting";
+    public static final String IO_SPLITTING_HELP = "Boolean ':'-Allow method and block call targets to be split per caller when their caches go polymorphic.";
+    @Option(name = IO_SPLITTING_NAME, category = OptionCategory.EXPERT, help = IO_SPLITTING_HELP) //
+    public static final OptionKey<Boolean> IoSplitting = new OptionKey<>(true);
+
+    public static final String IO_SLOT_KIND_REPORT_NAME = "io-slot-kind-report";
+    public static final String IO_SLOT_KIND_REPORT_HELP = "Boolean ':'-Print how often the local slot kinds of every method and block changed when the context is closed.";
+    @Option(name = IO_SLOT_KIND_REPORT_NAME, category = OptionCategory.EXPERT, help = IO_SLOT_KIND_REPORT_HELP) //
+    public static final OptionKey<Boolean> IoSlotKindReport = new OptionKey<>(false);
+
     private IoOptions() { // no instances
     }
 
@@ -72,11 +82,15 @@ public class IoOptions {
     public static final class IoStateOptions {
         public final String[] libPath;
         public final boolean numberLegacyFormat;
+        public final boolean splitting;
+        public final boolean slotKindReport;
 
         public IoStateOptions(final Env env) {
             final OptionValues options = env.getOptions();
             libPath = options.get(IoLibPath).isEmpty() ? new String[0] : options.get(IoLibPath).split(":");
             numberLegacyFormat = options.get(IoNumberLegacyFormat);
+            splitting = options.get(IoSplitting);
+            slotKindReport = options.get(IoSlotKindReport);
         }
     }
 }
@@ -77,7 +77,9 @@ import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
 import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.api.strings.TruffleString;
 
 import org.graalvm.polyglot.Context;
@@ -92,11 +94,25 @@ import org.iolanguage.nodes.functions.date.DateSecondsSinceFunctionFactory;
 import org.iolanguage.nodes.functions.exception.ExceptionRaiseFunctionFactory;
 import org.iolanguage.nodes.functions.list.ListAppendFunctionFactory;
 import org.iolanguage.nodes.functions.list.ListAtFunctionFactory;
+import org.iolanguage.nodes.functions.list.ListAtInsertFunctionFactory;
 import org.iolanguage.nodes.functions.list.ListAtPutFunctionFactory;
+import org.iolanguage.nodes.functions.list.ListCopyFunctionFactory;
+import org.iolanguage.nodes.functions.list.ListItemCopyFunctionFactory;
+import org.iolanguage.nodes.functions.list.ListPopFunctionFactory;
+import org.iolanguage.nodes.functions.list.ListPrependFunctionFactory;
+import org.iolanguage.nodes.functions.list.ListRemoveFirstFunctionFactory;
 import org.iolanguage.nodes.functions.list.ListSizeFunctionFactory;
+import org.iolanguage.nodes.functions.list.ListSliceFunctionFactory;
 import org.iolanguage.nodes.functions.lobby.LobbyExitFunctionFactory;
 import org.iolanguage.nodes.functions.map.MapAtFunctionFactory;
 import org.iolanguage.nodes.functions.map.MapAtPutFunctionFactory;
+import org.iolanguage.nodes.functions.map.MapHasKeyFunctionFactory;
+import org.iolanguage.nodes.functions.map.MapKeysFunctionFactory;
+import org.iolanguage.nodes.functions.map.MapRemoveAtFunctionFactory;
+import org.iolanguage.nodes.functions.map.MapSetEvictionPolicyFunctionFactory;
+import org.iolanguage.nodes.functions.map.MapSetMaxSizeFunctionFactory;
+import org.iolanguage.nodes.functions.map.MapSetTimeToLiveFunctionFactory;
+import org.iolanguage.nodes.functions.map.MapValuesFunctionFactory;
 import org.iolanguage.nodes.functions.number.NumberAddFunctionFactory;
 import org.iolanguage.nodes.functions.number.NumberAsLowercaseFunctionFactory;
 import org.iolanguage.nodes.functions.number.NumberAsUppercaseFunctionFactory;
@@ -117,16 +133,34 @@ import org.iolanguage.nodes.functions.object.ObjectSlotNamesFunctionFactory;
 import org.iolanguage.nodes.functions.object.ObjectThisContextFunctionFactory;
 import org.iolanguage.nodes.functions.object.ObjectWriteFunctionFactory;
 import org.iolanguage.nodes.functions.object.ObjectWritelnFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceAddInPlaceFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceAppendFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceAppendSeqFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceAsMutableFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceAtFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceAtInsertSeqFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceAtPutFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceDivideInPlaceFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceDotFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceEncodingFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceIsOffHeapFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceItemTypeFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceMaxFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceMeanFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceMinFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceMultiplyInPlaceFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceReleaseFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceRemoveSliceFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceSetEncodingFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceSetItemTypeFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceSetOffHeapFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceSetSizeFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceSizeFunctionFactory;
 import org.iolanguage.nodes.functions.sequence.SequenceSplitFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceSqrtFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceSquareFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceSubtractInPlaceFunctionFactory;
+import org.iolanguage.nodes.functions.sequence.SequenceSumFunctionFactory;
 import org.iolanguage.nodes.functions.system.SystemRegisterShutdownHookFunctionFactory;
 import org.iolanguage.nodes.functions.system.SystemSleepFunctionFactory;
 import org.iolanguage.nodes.functions.system.SystemStackTraceFunctionFactory;
@@ -164,6 +198,7 @@ public final class IoState {
     private final PrintWriter output;
     private final AllocationReporter allocationReporter;
     private final List<IoInvokable> shutdownHooks = new ArrayList<>();
+    private final List<IoRootNode> slotKindRoots = new ArrayList<>();
     public final IoStateOptions options;
 
     private static final Source BUILTIN_SOURCE = Source.newBuilder(IoLanguage.ID, "", "IO builtin").build();
@@ -287,20 +322,45 @@ public final class IoState {
         installBuiltin(ObjectThisContextFunctionFactory.getInstance());
         installBuiltin(ObjectWriteFunctionFactory.getInstance());
         installBuiltin(ObjectWritelnFunctionFactory.getInstance());
-        installBuiltin(ListSizeFunctionFactory.getInstance(), IoPrototype.LIST, "List");
-        installBuiltin(ListAppendFunctionFactory.getInstance(), IoPrototype.LIST, "List");
-        installBuiltin(ListAtFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installInlinableBuiltin(ListSizeFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installInlinableBuiltin(ListAppendFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installInlinableBuiltin(ListAtFunctionFactory.getInstance(), IoPrototype.LIST, "List");
         installBuiltin(ListAtPutFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installBuiltin(ListAtInsertFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installBuiltin(ListSliceFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installBuiltin(ListItemCopyFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installBuiltin(ListCopyFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installInlinableBuiltin(ListPrependFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installInlinableBuiltin(ListPopFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installInlinableBuiltin(ListRemoveFirstFunctionFactory.getInstance(), IoPrototype.LIST, "List");
+        installBuiltin(SequenceAppendFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(SequenceAppendSeqFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
-        installBuiltin(SequenceAtFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceAsMutableFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceAtInsertSeqFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceRemoveSliceFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installInlinableBuiltin(SequenceAtFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(SequenceAtPutFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(SequenceEncodingFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(SequenceSetEncodingFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(SequenceItemTypeFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(SequenceSetItemTypeFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
-        installBuiltin(SequenceSizeFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installInlinableBuiltin(SequenceSizeFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(SequenceSetSizeFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceIsOffHeapFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceSetOffHeapFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceReleaseFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(SequenceSplitFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceAddInPlaceFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceSubtractInPlaceFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceMultiplyInPlaceFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceDivideInPlaceFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceSquareFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceSqrtFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceSumFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceMeanFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceDotFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceMinFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
+        installBuiltin(SequenceMaxFunctionFactory.getInstance(), IoPrototype.SEQUENCE, "Sequence");
         installBuiltin(DateSecondsSinceFunctionFactory.getInstance(), IoPrototype.DATE, "Date");
         installBuiltin(DateNowFunctionFactory.getInstance(), IoPrototype.DATE, "Date");
         installBuiltin(NumberAsLowercaseFunctionFactory.getInstance(), IoPrototype.NUMBER, "Number");
@@ -314,8 +374,15 @@ public final class IoState {
         installBuiltin(ExceptionRaiseFunctionFactory.getInstance(), IoPrototype.EXCEPTION, "Exception");
         installBuiltin(BlockPassStopsFunctionFactory.getInstance(), IoPrototype.BLOCK, "Block");
         installBuiltin(BlockSetPassStopsFunctionFactory.getInstance(), IoPrototype.BLOCK, "Block");
-        installBuiltin(MapAtFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
+        installInlinableBuiltin(MapAtFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
         installBuiltin(MapAtPutFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
+        installInlinableBuiltin(MapHasKeyFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
+        installBuiltin(MapRemoveAtFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
+        installBuiltin(MapKeysFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
+        installBuiltin(MapValuesFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
+        installBuiltin(MapSetMaxSizeFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
+        installBuiltin(MapSetEvictionPolicyFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
+        installBuiltin(MapSetTimeToLiveFunctionFactory.getInstance(), IoPrototype.MAP, "Map");
     }
 
     public void installBuiltin(NodeFactory<? extends FunctionBodyNode> factory) {
@@ -324,6 +391,21 @@ public final class IoState {
 
     public void installBuiltin(NodeFactory<? extends FunctionBodyNode> factory, final IoBaseObject target,
             final String targetName) {
+        installBuiltin(factory, target, targetName, false);
+    }
+
+    /**
+     * Installs a builtin that call sites may inline: instead of calling its call target they
+     * instantiate the builtin node themselves and execute it in place. Only builtins that do not
+     * depend on the frame they run in may be installed this way.
+     */
+    public void installInlinableBuiltin(NodeFactory<? extends FunctionBodyNode> factory, final IoBaseObject target,
+            final String targetName) {
+        installBuiltin(factory, target, targetName, true);
+    }
+
+    private void installBuiltin(NodeFactory<? extends FunctionBodyNode> factory, final IoBaseObject target,
+            final String targetName, boolean inlinable) {
         /*
          * The builtin node factory is a class that is automatically generated by the
          * Truffle DLL. The signature returned by the factory reflects the signature of
@@ -358,8 +440,9 @@ public final class IoState {
         IoRootNode rootNode = new IoRootNode(language, new FrameDescriptor(), builtinBodyNode,
                 BUILTIN_SOURCE.createUnavailableSection());
         String functionName = targetName + "_" + name;
-        IoFunction function = createFunction(rootNode.getCallTarget(), Symbols.fromJavaString(functionName));
-        IoObjectUtil.put(target, Symbols.fromJavaString(name), function);
+        IoFunction function = createFunction(rootNode.getCallTarget(), Symbols.fromJavaString(functionName),
+                inlinable ? factory : null);
+        IoObjectUtil.put(target, Symbols.constant(name), function);
     }
 
     public void initialize() {
@@ -479,6 +562,38 @@ public final class IoState {
         shutdownHooks.add(func);
     }
 
+    /**
+     * Keeps the root node for the slot kind report, when it is enabled with the
+     * {@link IoOptions#IoSlotKindReport} option.
+     */
+    public void addSlotKindRoot(IoRootNode rootNode) {
+        if (options.slotKindReport) {
+            slotKindRoots.add(rootNode);
+        }
+    }
+
+    /**
+     * Prints the number of slot kind changes of every method and block parsed by this context that
+     * changed a slot kind at all, one line each. This method is designed to be executed in
+     * {@link TruffleLanguage#finalizeContext(Object)}.
+     */
+    @TruffleBoundary
+    public void reportSlotKinds() {
+        if (!options.slotKindReport) {
+            return;
+        }
+        PrintWriter err = new PrintWriter(env.err(), true);
+        for (IoRootNode rootNode : slotKindRoots) {
+            Object info = rootNode.getFrameDescriptor().getInfo();
+            int kindChanges = info instanceof IoLocals.SlotIndex ? ((IoLocals.SlotIndex) info).getKindChanges() : 0;
+            if (kindChanges > 0) {
+                SourceSection sourceSection = rootNode.getSourceSection();
+                err.println("Slot kind changes: " + kindChanges + " in " + sourceSection.getSource().getName() + ":"
+                        + sourceSection.getStartLine());
+            }
+        }
+    }
+
     /**
      * Run registered shutdown hooks. This method is designed to be executed in
      * {@link TruffleLanguage#exitContext(Object, TruffleLanguage.ExitMode, int)}.
@@ -523,6 +638,13 @@ public final class IoState {
         return list;
     }
 
+    public IoList createSlice(final IoList list, int start, int end) {
+        allocationReporter.onEnter(null, 0, AllocationReporter.SIZE_UNKNOWN);
+        IoList slice = list.slice(start, end);
+        allocationReporter.onReturnValue(slice, 0, AllocationReporter.SIZE_UNKNOWN);
+        return slice;
+    }
+
     public IoBigInteger createBigInteger(long value) {
         allocationReporter.onEnter(null, 0, AllocationReporter.SIZE_UNKNOWN);
         IoBigInteger biginteger = new IoBigInteger(value);
@@ -576,8 +698,13 @@ public final class IoState {
     }
 
     public IoFunction createFunction(RootCallTarget callTarget, final TruffleString name) {
+        return createFunction(callTarget, name, null);
+    }
+
+    public IoFunction createFunction(RootCallTarget callTarget, final TruffleString name,
+            final NodeFactory<? extends FunctionBodyNode> inlinableFactory) {
         allocationReporter.onEnter(null, 0, AllocationReporter.SIZE_UNKNOWN);
-        IoFunction function = new IoFunction(callTarget, name);
+        IoFunction function = new IoFunction(callTarget, name, inlinableFactory);
         allocationReporter.onReturnValue(function, 0, AllocationReporter.SIZE_UNKNOWN);
         return function;
     }
@@ -611,6 +738,27 @@ public final class IoState {
         return call;
     }
 
+    public IoCall createCall(final DynamicObjectLibrary objectLibrary, final IoLocals sender, final Object target,
+            final TruffleString messageName, final IoNode[] messageArguments, final IoBaseObject slotContext,
+            final IoInvokable activated, final IoCoroutine coroutine) {
+        allocationReporter.onEnter(null, 0, AllocationReporter.SIZE_UNKNOWN);
+        IoCall call = new IoCall(objectLibrary, sender, target, messageName, messageArguments, slotContext,
+                activated, coroutine);
+        allocationReporter.onReturnValue(call, 0, AllocationReporter.SIZE_UNKNOWN);
+        return call;
+    }
+
+    public IoCall createCall(final DynamicObjectLibrary objectLibrary, final Object senderReceiver,
+            final MaterializedFrame senderFrame, final Object target, final TruffleString messageName,
+            final IoNode[] messageArguments, final IoBaseObject slotContext, final IoInvokable activated,
+            final IoCoroutine coroutine) {
+        allocationReporter.onEnter(null, 0, AllocationReporter.SIZE_UNKNOWN);
+        IoCall call = new IoCall(objectLibrary, senderReceiver, senderFrame, target, messageName,
+                messageArguments, slotContext, activated, coroutine);
+        allocationReporter.onReturnValue(call, 0, AllocationReporter.SIZE_UNKNOWN);
+        return call;
+    }
+
     public IoException createException(final TruffleString error, final IoCoroutine coroutine,
             final IoMessage caughtMessage) {
         allocationReporter.onEnter(null, 0, AllocationReporter.SIZE_UNKNOWN);
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ */
+/*
+ * Copyright (c) 2021, 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.runtime;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
+
+import org.iolanguage.runtime.objects.IoBaseObject;
+import org.iolanguage.runtime.objects.IoObject;
+
+/**
+ * (prototype, slot name) to slot owner cache used by the megamorphic lookup path, one per
+ * language instance. Entries are valid while the assumption they were stored under is, and it is
+ * invalidated whenever an object that is part of a cached path changes its layout or prototype.
+ */
+public final class SlotLookupCache {
+    private static final int SIZE = 1024;
+
+    private final Entry[] entries = new Entry[SIZE];
+    private final CyclicAssumption valid = new CyclicAssumption("Slot lookup cache");
+
+    private static final class Entry {
+        final Assumption valid;
+        final IoObject prototype;
+        final Object key;
+        final IoBaseObject slotOwner;
+
+        Entry(Assumption valid, IoObject prototype, Object key, IoBaseObject slotOwner) {
+            this.valid = valid;
+            this.prototype = prototype;
+            this.key = key;
+            this.slotOwner = slotOwner;
+        }
+    }
+
+    /**
+     * The assumption to store entries under, taken before the lookup whose result is stored so
+     * that an invalidation racing with the lookup drops the entry.
+     */
+    public Assumption getAssumption() {
+        return valid.getAssumption();
+    }
+
+    @TruffleBoundary
+    public IoBaseObject get(IoObject prototype, Object key) {
+        Entry entry = entries[indexOf(prototype, key)];
+        if (entry != null && entry.prototype == prototype && entry.valid.isValid() && entry.key.equals(key)) {
+            return entry.slotOwner;
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    public void put(Assumption assumption, IoObject prototype, Object key, IoBaseObject slotOwner) {
+        entries[indexOf(prototype, key)] = new Entry(assumption, prototype, key, slotOwner);
+    }
+
+    @TruffleBoundary
+    public void flush() {
+        valid.invalidate();
+    }
+
+    /**
+     * Drops every entry, so that the objects of a closed context are not kept alive.
+     */
+    @TruffleBoundary
+    public void clear() {
+        flush();
+        Arrays.fill(entries, null);
+    }
+
+    private static int indexOf(IoObject prototype, Object key) {
+        return (System.identityHashCode(prototype) * 31 + key.hashCode()) & (SIZE - 1);
+    }
+}
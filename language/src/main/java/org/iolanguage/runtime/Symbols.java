@@ -43,6 +43,11 @@
  */
 package org.iolanguage.runtime;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.nodes.RootNode;
@@ -54,6 +59,40 @@ import org.iolanguage.nodes.root.FunctionRootNode;
 
 public final class Symbols {
 
+    /*
+     * Canonical instance of every slot name. Names are held weakly so names built at run time (for
+     * example by setSlot with a computed name) go away with the last object referencing them; the
+     * references they leave behind are dropped on the next intern.
+     */
+    private static final ConcurrentHashMap<SymbolReference, SymbolReference> SYMBOL_TABLE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<TruffleString> CLEARED_SYMBOLS = new ReferenceQueue<>();
+
+    private static final class SymbolReference extends WeakReference<TruffleString> {
+        private final int hash;
+
+        SymbolReference(TruffleString symbol, ReferenceQueue<TruffleString> queue) {
+            super(symbol, queue);
+            this.hash = symbol.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof SymbolReference)) {
+                return false;
+            }
+            TruffleString symbol = get();
+            return symbol != null && symbol.equals(((SymbolReference) other).get());
+        }
+    }
+
     public static final TruffleString _EMPTY_ = constant("");
 
     public static final TruffleString NIL = constant("nil");
@@ -77,7 +116,32 @@ public final class Symbols {
     public static final TruffleString SYSTEM = constant("System");
 
     public static TruffleString constant(String s) {
-        return fromJavaString(s);
+        return intern(fromJavaString(s));
+    }
+
+    /**
+     * Returns the canonical instance of a slot name, so that slot names coming from the parser,
+     * the builtins and the reflective slot functions can be compared by identity.
+     */
+    @TruffleBoundary
+    public static TruffleString intern(TruffleString name) {
+        Reference<? extends TruffleString> cleared;
+        while ((cleared = CLEARED_SYMBOLS.poll()) != null) {
+            SYMBOL_TABLE.remove(cleared);
+        }
+        SymbolReference reference = new SymbolReference(name, CLEARED_SYMBOLS);
+        while (true) {
+            SymbolReference existing = SYMBOL_TABLE.putIfAbsent(reference, reference);
+            if (existing == null) {
+                return name;
+            }
+            TruffleString symbol = existing.get();
+            if (symbol != null) {
+                return symbol;
+            }
+            // cleared after it matched, drop it and try again
+            SYMBOL_TABLE.remove(existing, existing);
+        }
     }
 
     public static TruffleString fromJavaString(String s) {
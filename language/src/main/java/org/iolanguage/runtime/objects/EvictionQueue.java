@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * list (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.runtime.objects;
+
+/**
+ * Bookkeeping for a bounded {@link IoMap}. Entries sit in frequency buckets ordered from least to
+ * most used, each bucket keeping its entries from least to most recently used, so the next victim
+ * is always the first entry of the first bucket. Under LRU every entry stays in one bucket; under
+ * LFU an access moves the entry to the bucket for its next frequency. A separate list in write
+ * order finds expired entries when a time to live is set. Every operation is O(1).
+ */
+final class EvictionQueue {
+
+    static final class Entry {
+        final Object key;
+        Object value;
+        long expiresAt;
+        Bucket bucket;
+        Entry prev = this;
+        Entry next = this;
+        Entry writePrev = this;
+        Entry writeNext = this;
+
+        Entry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    static final class Bucket {
+        final long frequency;
+        final Entry entries = new Entry(null, null);
+        Bucket prev = this;
+        Bucket next = this;
+
+        Bucket(long frequency) {
+            this.frequency = frequency;
+        }
+    }
+
+    private final IoMap.EvictionPolicy policy;
+    private final long timeToLive;
+    private final Bucket buckets = new Bucket(0);
+    private final Entry writeOrder = new Entry(null, null);
+
+    EvictionQueue(IoMap.EvictionPolicy policy, long timeToLive) {
+        this.policy = policy;
+        this.timeToLive = timeToLive;
+    }
+
+    Entry add(Object key, Object value, long now) {
+        Entry entry = new Entry(key, value);
+        Bucket first = buckets.next;
+        append(first != buckets && first.frequency == 1 ? first : insertBucketAfter(buckets, 1), entry);
+        written(entry, now);
+        return entry;
+    }
+
+    void accessed(Entry entry) {
+        Bucket bucket = entry.bucket;
+        unlink(entry);
+        if (policy == IoMap.EvictionPolicy.LRU) {
+            append(bucket, entry);
+            return;
+        }
+        Bucket next = bucket.next;
+        long frequency = bucket.frequency + 1;
+        append(next != buckets && next.frequency == frequency ? next : insertBucketAfter(bucket, frequency), entry);
+        if (bucket.entries.next == bucket.entries) {
+            removeBucket(bucket);
+        }
+    }
+
+    void updated(Entry entry, long now) {
+        accessed(entry);
+        written(entry, now);
+    }
+
+    void removed(Entry entry) {
+        Bucket bucket = entry.bucket;
+        unlink(entry);
+        if (bucket.entries.next == bucket.entries) {
+            removeBucket(bucket);
+        }
+        entry.writePrev.writeNext = entry.writeNext;
+        entry.writeNext.writePrev = entry.writePrev;
+        entry.writePrev = entry;
+        entry.writeNext = entry;
+    }
+
+    Entry victim() {
+        Bucket first = buckets.next;
+        return first == buckets ? null : first.entries.next;
+    }
+
+    /**
+     * The oldest written entry if its time to live has run out, {@code null} otherwise.
+     */
+    Entry expired(long now) {
+        Entry oldest = writeOrder.writeNext;
+        return oldest != writeOrder && isExpired(oldest, now) ? oldest : null;
+    }
+
+    boolean isExpired(Entry entry, long now) {
+        return timeToLive > 0 && now - entry.expiresAt >= 0;
+    }
+
+    private void written(Entry entry, long now) {
+        if (timeToLive <= 0) {
+            return;
+        }
+        entry.expiresAt = now + timeToLive;
+        entry.writePrev.writeNext = entry.writeNext;
+        entry.writeNext.writePrev = entry.writePrev;
+        entry.writePrev = writeOrder.writePrev;
+        entry.writeNext = writeOrder;
+        writeOrder.writePrev.writeNext = entry;
+        writeOrder.writePrev = entry;
+    }
+
+    private static void append(Bucket bucket, Entry entry) {
+        Entry sentinel = bucket.entries;
+        entry.bucket = bucket;
+        entry.prev = sentinel.prev;
+        entry.next = sentinel;
+        sentinel.prev.next = entry;
+        sentinel.prev = entry;
+    }
+
+    private static void unlink(Entry entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = entry;
+        entry.next = entry;
+    }
+
+    private static Bucket insertBucketAfter(Bucket previous, long frequency) {
+        Bucket bucket = new Bucket(frequency);
+        bucket.prev = previous;
+        bucket.next = previous.next;
+        previous.next.prev = bucket;
+        previous.next = bucket;
+        return bucket;
+    }
+
+    private static void removeBucket(Bucket bucket) {
+        bucket.prev.next = bucket.next;
+        bucket.next.prev = bucket.prev;
+    }
+}
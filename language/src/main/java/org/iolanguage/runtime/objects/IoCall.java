@@ -40,9 +40,16 @@
  */
 package org.iolanguage.runtime.objects;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.PropertyGetter;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.strings.TruffleString;
 
+import org.iolanguage.nodes.IoNode;
 import org.iolanguage.runtime.IoObjectUtil;
+import org.iolanguage.runtime.IoState;
 import org.iolanguage.runtime.Symbols;
 
 public class IoCall extends IoObject { 
@@ -53,6 +60,16 @@ public class IoCall extends IoObject {
     private static final TruffleString SYMBOL_ACTIVATED = Symbols.constant("activated");
     private static final TruffleString SYMBOL_COROUTINE = Symbols.constant("coroutine");
 
+    private static final Shape ROOT_SHAPE = Shape.newBuilder().layout(IoCall.class).build();
+    private static final Shape DECLARED_SHAPE = declareSlots(new IoCall(), SYMBOL_SENDER, SYMBOL_MESSAGE,
+            SYMBOL_TARGET, SYMBOL_SLOT_CONTEXT, SYMBOL_ACTIVATED, SYMBOL_COROUTINE);
+    private static final PropertyGetter SENDER_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_SENDER);
+    private static final PropertyGetter MESSAGE_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_MESSAGE);
+    private static final PropertyGetter TARGET_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_TARGET);
+    private static final PropertyGetter SLOT_CONTEXT_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_SLOT_CONTEXT);
+    private static final PropertyGetter ACTIVATED_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_ACTIVATED);
+    private static final PropertyGetter COROUTINE_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_COROUTINE);
+
     @DynamicField
     private Object sender;
     @DynamicField
@@ -66,19 +83,105 @@ public class IoCall extends IoObject {
     @DynamicField
     private Object coroutine;
 
+    /**
+     * Parts of the sender and message slots that have not been materialized yet. The slots are
+     * only created when they are read, so activations that never look at them do not pay for
+     * the locals and message objects.
+     */
+    private Object lazySenderReceiver;
+    private MaterializedFrame lazySenderFrame;
+    private TruffleString lazyMessageName;
+    private IoNode[] lazyMessageArguments;
+
+    private IoCall() {
+        super(ROOT_SHAPE, null);
+    }
+
+    private IoCall(final DynamicObjectLibrary objectLibrary, final IoLocals sender, final IoMessage message,
+            final Object target, final IoBaseObject slotContext, final IoInvokable activated,
+            final IoCoroutine coroutine) {
+        super(ROOT_SHAPE, IoPrototype.CALL);
+        // same order as DECLARED_SHAPE, the object is new so no layout needs invalidating
+        objectLibrary.put(this, SYMBOL_SENDER, sender);
+        objectLibrary.put(this, SYMBOL_MESSAGE, message);
+        objectLibrary.put(this, SYMBOL_TARGET, target);
+        objectLibrary.put(this, SYMBOL_SLOT_CONTEXT, slotContext);
+        objectLibrary.put(this, SYMBOL_ACTIVATED, activated);
+        objectLibrary.put(this, SYMBOL_COROUTINE, coroutine);
+    }
+
     public IoCall(final IoLocals sender, final Object target, final IoMessage message, final IoBaseObject slotContext,
             final IoInvokable activated, final IoCoroutine coroutine) {
-        super(IoPrototype.CALL);
-        setSender(sender);
-        setMessage(message);
-        setTarget(target);
-        setSlotContext(slotContext);
-        setActivated(activated);
-        setCoroutine(coroutine);
+        this(DynamicObjectLibrary.getUncached(), sender, message, target, slotContext, activated, coroutine);
+    }
+
+    public IoCall(final DynamicObjectLibrary objectLibrary, final IoLocals sender, final Object target,
+            final TruffleString messageName, final IoNode[] messageArguments, final IoBaseObject slotContext,
+            final IoInvokable activated, final IoCoroutine coroutine) {
+        this(objectLibrary, sender, null, target, slotContext, activated, coroutine);
+        this.lazyMessageName = messageName;
+        this.lazyMessageArguments = messageArguments;
+    }
+
+    public IoCall(final DynamicObjectLibrary objectLibrary, final Object senderReceiver,
+            final MaterializedFrame senderFrame, final Object target, final TruffleString messageName,
+            final IoNode[] messageArguments, final IoBaseObject slotContext, final IoInvokable activated,
+            final IoCoroutine coroutine) {
+        this(objectLibrary, null, null, target, slotContext, activated, coroutine);
+        this.lazySenderReceiver = senderReceiver;
+        this.lazySenderFrame = senderFrame;
+        this.lazyMessageName = messageName;
+        this.lazyMessageArguments = messageArguments;
+    }
+
+    public static boolean isLazySlot(final TruffleString name) {
+        return SYMBOL_SENDER.equals(name) || SYMBOL_MESSAGE.equals(name);
+    }
+
+    public static boolean isSenderSlot(final TruffleString name) {
+        return SYMBOL_SENDER.equals(name);
+    }
+
+    @Override
+    public void materializeSlots() {
+        if (lazySenderFrame != null) {
+            materializeSender();
+        }
+        if (lazyMessageName != null) {
+            materializeMessage();
+        }
+    }
+
+    @TruffleBoundary
+    private void materializeSender() {
+        Object senderReceiver = lazySenderReceiver;
+        MaterializedFrame senderFrame = lazySenderFrame;
+        lazySenderReceiver = null;
+        lazySenderFrame = null;
+        if (senderReceiver instanceof IoCall) {
+            senderReceiver = ((IoCall) senderReceiver).getSender();
+        }
+        IoLocals sender = IoState.get(null).createLocals(senderReceiver, senderFrame);
+        if (getDeclaredSlot(SENDER_GETTER) == null) {
+            setSender(sender);
+        }
+    }
+
+    @TruffleBoundary
+    private void materializeMessage() {
+        IoMessage message = IoState.get(null).createMessage(lazyMessageName, lazyMessageArguments);
+        lazyMessageName = null;
+        lazyMessageArguments = null;
+        if (getDeclaredSlot(MESSAGE_GETTER) == null) {
+            setMessage(message);
+        }
     }
 
     public IoLocals getSender() {
-        return (IoLocals)IoObjectUtil.getOrDefault(this, SYMBOL_SENDER);
+        if (lazySenderFrame != null) {
+            materializeSender();
+        }
+        return (IoLocals) getDeclaredSlot(SENDER_GETTER);
     }
 
     protected void setSender(IoLocals sender) {
@@ -86,7 +189,10 @@ public class IoCall extends IoObject {
     }
 
     public IoMessage getMessage() {
-        return (IoMessage)IoObjectUtil.getOrDefault(this, SYMBOL_MESSAGE);
+        if (lazyMessageName != null) {
+            materializeMessage();
+        }
+        return (IoMessage) getDeclaredSlot(MESSAGE_GETTER);
     }
 
     protected void setMessage(IoMessage message) {
@@ -94,7 +200,7 @@ public class IoCall extends IoObject {
     }
 
     public Object getTarget() {
-        return IoObjectUtil.getOrDefault(this, SYMBOL_TARGET);
+        return getDeclaredSlot(TARGET_GETTER);
     }
 
     protected void setTarget(Object target) {
@@ -102,7 +208,7 @@ public class IoCall extends IoObject {
     }
 
     public IoBaseObject getSlotContext() {
-        return (IoBaseObject)IoObjectUtil.getOrDefault(this, SYMBOL_SLOT_CONTEXT);
+        return (IoBaseObject) getDeclaredSlot(SLOT_CONTEXT_GETTER);
     }
 
     protected void setSlotContext(IoBaseObject slotcontext) {
@@ -110,7 +216,7 @@ public class IoCall extends IoObject {
     }
 
     public IoInvokable getActivated() {
-        return (IoInvokable)IoObjectUtil.getOrDefault(this, SYMBOL_ACTIVATED);
+        return (IoInvokable) getDeclaredSlot(ACTIVATED_GETTER);
     }
 
     protected void setActivated(IoInvokable activated) {
@@ -118,10 +224,10 @@ public class IoCall extends IoObject {
     }
 
     public IoCoroutine getCoroutine() {
-        return (IoCoroutine)IoObjectUtil.getOrDefault(this, SYMBOL_COROUTINE);
+        return (IoCoroutine) getDeclaredSlot(COROUTINE_GETTER);
     }
 
     protected void setCoroutine(IoCoroutine coroutine) {
         IoObjectUtil.put(this, SYMBOL_COROUTINE, coroutine);
     }
-}
\ No newline at end of file
+}
@@ -40,6 +40,8 @@
  */
 package org.iolanguage.runtime.objects;
 
+import com.oracle.truffle.api.object.PropertyGetter;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.strings.TruffleString;
 
 import org.iolanguage.runtime.IoObjectUtil;
@@ -52,13 +54,22 @@ public class IoException extends IoObject {
     private static final TruffleString SYMBOL_NESTED_EXCEPTION = Symbols.constant("nestedException");
     private static final TruffleString SYMBOL_ORIGINAL_CALL = Symbols.constant("originalCall");
 
+    private static final Shape ROOT_SHAPE = Shape.newBuilder().layout(IoException.class).build();
+    private static final Shape DECLARED_SHAPE = declareSlots(new IoException(), SYMBOL_ERROR, SYMBOL_COROUTINE);
+    private static final PropertyGetter ERROR_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_ERROR);
+    private static final PropertyGetter COROUTINE_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_COROUTINE);
+
     @DynamicField
-    private TruffleString caughtMessage;
+    private Object error;
     @DynamicField
-    private IoCoroutine coroutine;
+    private Object coroutine;
+
+    private IoException() {
+        super(ROOT_SHAPE, null);
+    }
 
     public IoException(final TruffleString error, final IoCoroutine coroutine) {
-        super(IoPrototype.EXCEPTION);
+        super(ROOT_SHAPE, IoPrototype.EXCEPTION);
         setSymbolError(error);
         setCoroutine(coroutine);
     }
@@ -70,7 +81,7 @@ public class IoException extends IoObject {
     }
 
     public TruffleString getSymbolError() {
-        return (TruffleString)IoObjectUtil.getOrDefault(this, SYMBOL_ERROR);
+        return (TruffleString) getDeclaredSlot(ERROR_GETTER);
     }
 
     protected void setSymbolError(TruffleString error) {
@@ -78,7 +89,7 @@ public class IoException extends IoObject {
     }
 
     public IoCoroutine getSymbolCoroutine() {
-        return (IoCoroutine)IoObjectUtil.getOrDefault(this, SYMBOL_COROUTINE);
+        return (IoCoroutine) getDeclaredSlot(COROUTINE_GETTER);
     }
 
     protected void setCoroutine(IoCoroutine coroutine) {
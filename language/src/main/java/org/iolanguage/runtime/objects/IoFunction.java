@@ -43,8 +43,11 @@
  */
 package org.iolanguage.runtime.objects;
 
+import org.iolanguage.nodes.functions.FunctionBodyNode;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
@@ -55,15 +58,31 @@ public final class IoFunction extends IoInvokable {
 
     private final TruffleString name;
 
+    /**
+     * Set for builtins whose body may be inlined into the call sites that invoke them, null
+     * otherwise.
+     */
+    private final NodeFactory<? extends FunctionBodyNode> inlinableFactory;
+
     public IoFunction(final RootCallTarget callTarget, final TruffleString name) {
+        this(callTarget, name, null);
+    }
+
+    public IoFunction(final RootCallTarget callTarget, final TruffleString name,
+            final NodeFactory<? extends FunctionBodyNode> inlinableFactory) {
         super(IoPrototype.BLOCK, callTarget);
         this.name = name;
+        this.inlinableFactory = inlinableFactory;
     }
 
     public TruffleString getFunctionName() {
         return name;
     }
 
+    public NodeFactory<? extends FunctionBodyNode> getInlinableFactory() {
+        return inlinableFactory;
+    }
+
     @Override
     public String toStringInner() {
         String string = name.toJavaStringUncached() + "()";
@@ -40,11 +40,10 @@
  */
 package org.iolanguage.runtime.objects;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
@@ -58,30 +57,129 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 
 import org.iolanguage.runtime.IoObjectUtil;
 
+/**
+ * A list keeps its elements in one of four storage strategies: empty (no store), {@code long[]},
+ * {@code double[]} or {@code Object[]}. Numbers stay unboxed as long as every element has the same
+ * primitive type. Storing an element the current strategy cannot hold generalizes the store, and a
+ * store never goes back to a more specific strategy. Longs do not widen to doubles because integers
+ * and floats print differently.
+ * <p>
+ * The elements start at a head offset into the store, so that removing from and inserting at the
+ * front are amortized O(1), like at the end. Slices and copies share the store copy-on-write.
+ */
 @ExportLibrary(InteropLibrary.class)
 public class IoList extends IoObject {
-    private List<Object> list;
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** null, long[], double[] or Object[]. */
+    private Object store;
+    /** Index in the store of the first element, the store keeps room at both ends. */
+    private int head;
+    private int size;
+    /**
+     * Set when the store may be referenced by another list, a slice or copy of this one. The first
+     * write to either list copies the store, see {@link #unshare()}.
+     */
+    private boolean shared;
 
     public IoList() {
         super(IoPrototype.LIST);
-        this.list = new ArrayList<>();
+        this.store = null;
+        this.head = 0;
+        this.size = 0;
     }
 
-    public IoList(Object[] list) {
+    public IoList(Object[] values) {
         super(IoPrototype.LIST);
-        this.list = new ArrayList<Object>(Arrays.asList(list));;
+        this.store = createStore(values);
+        this.size = values.length;
+    }
+
+    private static Object createStore(Object[] values) {
+        if (values.length == 0) {
+            return null;
+        }
+        boolean allLongs = true;
+        boolean allDoubles = true;
+        for (Object value : values) {
+            allLongs &= value instanceof Long;
+            allDoubles &= value instanceof Double;
+        }
+        if (allLongs) {
+            long[] longs = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                longs[i] = (Long) values[i];
+            }
+            return longs;
+        }
+        if (allDoubles) {
+            double[] doubles = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                doubles[i] = (Double) values[i];
+            }
+            return doubles;
+        }
+        return Arrays.copyOf(values, values.length, Object[].class);
+    }
+
+    /**
+     * Returns a list holding the elements from start (inclusive) to end (exclusive), which must be
+     * valid bounds. The slice shares the store with this list until either of them is written.
+     */
+    public IoList slice(int start, int end) {
+        return new IoList().copyFrom(this, start, end);
+    }
+
+    /**
+     * Replaces the elements of this list with the elements of source from start (inclusive) to end
+     * (exclusive), sharing its store until either list is written.
+     */
+    public IoList copyFrom(IoList source, int start, int end) {
+        if (end <= start || source.store == null) {
+            this.store = null;
+            this.head = 0;
+            this.size = 0;
+            this.shared = false;
+        } else {
+            this.store = source.store;
+            this.head = source.head + start;
+            this.size = end - start;
+            this.shared = true;
+            source.shared = true;
+        }
+        return this;
+    }
+
+    /**
+     * Replaces the elements of this list with values, in a store of its own.
+     */
+    public IoList copyFrom(Object[] values) {
+        this.store = createStore(values);
+        this.head = 0;
+        this.size = values.length;
+        this.shared = false;
+        return this;
+    }
+
+    /**
+     * Gives this list a store of its own before it is written.
+     */
+    @TruffleBoundary
+    private void unshare() {
+        shared = false;
+        if (store != null) {
+            resize(Math.max(INITIAL_CAPACITY, size + (size >> 1)), 0);
+        }
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("list(");
-        boolean first = true;
-        for (Object value: list) {
-            if(first) {
-                first = false;
-            } else {
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
                 sb.append(", ");
-             }
+            }
+            Object value = get(i);
             if (value == null) {
                 sb.append("<UNKNOWN>");
             } else {
@@ -97,45 +195,388 @@ public class IoList extends IoObject {
         return toString();
     }
 
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isEmptyStorage() {
+        return store == null;
+    }
+
+    public boolean isLongStorage() {
+        return store instanceof long[];
+    }
+
+    public boolean isDoubleStorage() {
+        return store instanceof double[];
+    }
+
+    public boolean isObjectStorage() {
+        return store instanceof Object[];
+    }
+
+    public boolean isInBounds(long index) {
+        return index >= 0 && index < size;
+    }
+
+    /**
+     * Reads an element of a list with long storage, the index must be in bounds.
+     */
+    public long getLong(int index) {
+        return ((long[]) store)[head + index];
+    }
+
+    /**
+     * Reads an element of a list with double storage, the index must be in bounds.
+     */
+    public double getDouble(int index) {
+        return ((double[]) store)[head + index];
+    }
+
+    /**
+     * Reads an element of a list with object storage, the index must be in bounds.
+     */
+    public Object getObject(int index) {
+        return ((Object[]) store)[head + index];
+    }
+
+    /**
+     * Reads an element whatever the storage is, boxing primitives. The index must be in bounds.
+     */
+    public Object get(int index) {
+        if (store instanceof long[]) {
+            return ((long[]) store)[head + index];
+        } else if (store instanceof double[]) {
+            return ((double[]) store)[head + index];
+        }
+        return ((Object[]) store)[head + index];
+    }
+
+    /**
+     * Writes an element of a list with long storage, the index must be in bounds.
+     */
+    public void setLong(int index, long value) {
+        if (shared) {
+            unshare();
+        }
+        ((long[]) store)[head + index] = value;
+    }
+
+    /**
+     * Writes an element of a list with double storage, the index must be in bounds.
+     */
+    public void setDouble(int index, double value) {
+        if (shared) {
+            unshare();
+        }
+        ((double[]) store)[head + index] = value;
+    }
+
+    /**
+     * Writes an element of a list with object storage, the index must be in bounds.
+     */
+    public void setObject(int index, Object value) {
+        if (shared) {
+            unshare();
+        }
+        ((Object[]) store)[head + index] = value;
+    }
+
+    /**
+     * Writes an element whatever the storage is, generalizing it if needed. Writing past the end
+     * grows the list, the elements in between are nil.
+     */
+    public void set(int index, Object value) {
+        while (size < index) {
+            append(IoNil.SINGLETON);
+        }
+        if (index == size) {
+            append(value);
+            return;
+        }
+        if (store instanceof long[] && value instanceof Long) {
+            setLong(index, (Long) value);
+        } else if (store instanceof double[] && value instanceof Double) {
+            setDouble(index, (Double) value);
+        } else {
+            generalizeToObjects();
+            setObject(index, value);
+        }
+    }
+
+    /**
+     * Appends to a list with empty or long storage.
+     */
+    public void appendLong(long value) {
+        if (store == null) {
+            store = new long[INITIAL_CAPACITY];
+        }
+        if (shared) {
+            unshare();
+        }
+        reserveAtEnd();
+        ((long[]) store)[head + size++] = value;
+    }
+
+    /**
+     * Appends to a list with empty or double storage.
+     */
+    public void appendDouble(double value) {
+        if (store == null) {
+            store = new double[INITIAL_CAPACITY];
+        }
+        if (shared) {
+            unshare();
+        }
+        reserveAtEnd();
+        ((double[]) store)[head + size++] = value;
+    }
+
+    /**
+     * Appends to a list with object storage.
+     */
+    public void appendObject(Object value) {
+        if (shared) {
+            unshare();
+        }
+        reserveAtEnd();
+        ((Object[]) store)[head + size++] = value;
+    }
+
+    /**
+     * Appends whatever the storage is, generalizing it if needed.
+     */
+    public void append(Object value) {
+        if (value instanceof Long && (store == null || store instanceof long[])) {
+            appendLong((Long) value);
+        } else if (value instanceof Double && (store == null || store instanceof double[])) {
+            appendDouble((Double) value);
+        } else {
+            generalizeToObjects();
+            appendObject(value);
+        }
+    }
+
+    /**
+     * Inserts at the front whatever the storage is, generalizing it if needed. Amortized O(1):
+     * the store keeps room before the first element.
+     */
+    public void prepend(Object value) {
+        adaptStoreTo(value);
+        if (shared) {
+            unshare();
+        }
+        reserveAtFront();
+        head--;
+        size++;
+        set(0, value);
+    }
+
+    /**
+     * Inserts the value so that it ends up at the given index, which must be between 0 and the
+     * size of the list.
+     */
+    public void insert(int index, Object value) {
+        if (index == 0) {
+            prepend(value);
+        } else if (index == size) {
+            append(value);
+        } else {
+            adaptStoreTo(value);
+            if (shared) {
+                unshare();
+            }
+            reserveAtEnd();
+            System.arraycopy(store, head + index, store, head + index + 1, size - index);
+            size++;
+            set(index, value);
+        }
+    }
+
+    /**
+     * Removes and returns the first element, or returns null if the list is empty. O(1).
+     */
+    public Object removeFirst() {
+        if (size == 0) {
+            return null;
+        }
+        Object value = get(0);
+        clear(0);
+        head++;
+        size--;
+        if (size == 0) {
+            head = 0;
+        }
+        return value;
+    }
+
+    /**
+     * Removes and returns the last element, or returns null if the list is empty. O(1).
+     */
+    public Object removeLast() {
+        if (size == 0) {
+            return null;
+        }
+        Object value = get(size - 1);
+        clear(size - 1);
+        size--;
+        if (size == 0) {
+            head = 0;
+        }
+        return value;
+    }
+
+    /**
+     * Drops the reference held by a removed element of an object store.
+     */
+    private void clear(int index) {
+        if (!shared && store instanceof Object[]) {
+            ((Object[]) store)[head + index] = null;
+        }
+    }
+
+    /**
+     * Makes sure the store can hold the value, generalizing it if needed.
+     */
+    private void adaptStoreTo(Object value) {
+        if (store == null) {
+            if (value instanceof Long) {
+                store = new long[INITIAL_CAPACITY];
+            } else if (value instanceof Double) {
+                store = new double[INITIAL_CAPACITY];
+            } else {
+                store = new Object[INITIAL_CAPACITY];
+            }
+        } else if (!(store instanceof long[] && value instanceof Long)
+                && !(store instanceof double[] && value instanceof Double)) {
+            generalizeToObjects();
+        }
+    }
+
+    /**
+     * Switches to object storage. Does nothing if the list already has it.
+     */
+    public void generalizeToObjects() {
+        if (store instanceof Object[]) {
+            return;
+        }
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        Object[] objects = new Object[Math.max(INITIAL_CAPACITY, size + (size >> 1))];
+        for (int i = 0; i < size; i++) {
+            objects[i] = get(i);
+        }
+        store = objects;
+        head = 0;
+        shared = false;
+    }
+
+    /**
+     * Makes room for one more element after the last one.
+     */
+    private void reserveAtEnd() {
+        final int capacity = capacity();
+        if (head + size < capacity) {
+            return;
+        }
+        if (head > capacity >> 1 && !shared) {
+            // mostly consumed from the front, slide the elements back instead of growing
+            System.arraycopy(store, head, store, 0, size);
+            clearRange(size, head + size);
+            head = 0;
+        } else {
+            final int newCapacity = grownCapacity(size + 1);
+            resize(newCapacity, Math.min(head, (newCapacity - size - 1) / 2));
+        }
+    }
+
+    /**
+     * Makes room for one more element before the first one.
+     */
+    private void reserveAtFront() {
+        if (head > 0) {
+            return;
+        }
+        final int newCapacity = grownCapacity(size + 1);
+        resize(newCapacity, (newCapacity - size + 1) / 2);
+    }
+
+    private void resize(int newCapacity, int newHead) {
+        final Object newStore;
+        if (store instanceof long[]) {
+            newStore = new long[newCapacity];
+        } else if (store instanceof double[]) {
+            newStore = new double[newCapacity];
+        } else {
+            newStore = new Object[newCapacity];
+        }
+        System.arraycopy(store, head, newStore, newHead, size);
+        store = newStore;
+        head = newHead;
+        shared = false;
+    }
+
+    private void clearRange(int from, int to) {
+        if (store instanceof Object[]) {
+            Arrays.fill((Object[]) store, from, to, null);
+        }
+    }
+
+    private int capacity() {
+        if (store instanceof long[]) {
+            return ((long[]) store).length;
+        } else if (store instanceof double[]) {
+            return ((double[]) store).length;
+        }
+        return ((Object[]) store).length;
+    }
+
+    private static int grownCapacity(int minCapacity) {
+        int capacity = Math.max(INITIAL_CAPACITY, minCapacity + (minCapacity >> 1));
+        if (capacity < 0) {
+            throw new OutOfMemoryError();
+        }
+        return capacity;
+    }
+
     @ExportMessage
     boolean hasArrayElements() {
         return true;
     }
 
-    @ExportMessage(name = "isArrayElementReadable")
-    @ExportMessage(name = "isArrayElementModifiable")
-    boolean isValidIndex(long index) {
-        return index >= 0;
+    @ExportMessage
+    boolean isArrayElementReadable(long index) {
+        return isInBounds(index);
+    }
+
+    @ExportMessage
+    boolean isArrayElementModifiable(long index) {
+        return index >= 0 && index < Integer.MAX_VALUE;
     }
 
     @ExportMessage
     boolean isArrayElementInsertable(long index) {
-        return index == list.size();
+        return index == size;
     }
 
     @ExportMessage
     long getArraySize() {
-        return list.size();
+        return size;
     }
 
     @ExportMessage
     Object readArrayElement(long index) throws InvalidArrayIndexException {
-        if (!isValidIndex(index)) {
+        if (!isInBounds(index)) {
             throw InvalidArrayIndexException.create(index);
         }
-        return list.get((int)index);
+        return get((int) index);
     }
 
     @ExportMessage
     public void writeArrayElement(long index, Object value) throws InvalidArrayIndexException {
-        if (!isValidIndex(index)) {
+        if (!isArrayElementModifiable(index)) {
             throw InvalidArrayIndexException.create(index);
         }
-        int aditional = (int)index  + 1 - list.size();
-        while(aditional-- > 0) {
-            list.add(IoNil.SINGLETON); 
-        }
-        list.set((int)index,value);
+        set((int) index, value);
     }
 
     @ExportMessage
@@ -40,8 +40,14 @@
  */
 package org.iolanguage.runtime.objects;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.TruffleLogger;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.Fallback;
@@ -54,6 +60,7 @@ import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.strings.TruffleString;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
 import com.oracle.truffle.api.utilities.TriState;
 
 import org.iolanguage.IoLanguage;
@@ -62,6 +69,7 @@ import org.iolanguage.runtime.Symbols;
 
 @ExportLibrary(InteropLibrary.class)
 public final class IoLocals implements IoBaseObject {
+    private static final TruffleLogger LOGGER = IoLanguage.getLogger(IoLocals.class);
 
     public static final int CALL_ARGUMENT_INDEX = 0;
     public static final int TARGET_ARGUMENT_INDEX = 0;
@@ -103,19 +111,83 @@ public final class IoLocals implements IoBaseObject {
         return null; // caller is not a block 
     }
 
-    public boolean hasLocal(final Object name) {
-        return getLocalSlotIndex(name) != null;
-    }
+    /**
+     * Maps the slot names of a frame descriptor to their indexes. Built once per descriptor by the
+     * parser and stored as the descriptor info, so that resolving a name on a locals object does not
+     * scan every slot. It also holds the per slot assumptions of the slot kind protocol, see
+     * {@link #generalizeSlotKind}.
+     */
+    public static final class SlotIndex {
+        private final Map<Object, Integer> indexes;
+        private final CyclicAssumption[] kindAssumptions;
+        private int kindChanges;
+
+        private SlotIndex(final Map<Object, Integer> indexes, int slotCount) {
+            this.indexes = indexes;
+            this.kindAssumptions = new CyclicAssumption[slotCount];
+        }
+
+        @TruffleBoundary
+        public static SlotIndex create(final List<?> slotNames) {
+            final Map<Object, Integer> indexes = new HashMap<>(slotNames.size() * 2);
+            for (int i = 0; i < slotNames.size(); i++) {
+                indexes.putIfAbsent(slotNames.get(i), i);
+            }
+            return new SlotIndex(indexes, slotNames.size());
+        }
+
+        @TruffleBoundary
+        int find(final Object name) {
+            Integer index = indexes.get(name);
+            return index == null ? -1 : index;
+        }
+
+        Assumption getKindAssumption(int slotIndex) {
+            if (kindAssumptions[slotIndex] == null) {
+                kindAssumptions[slotIndex] = new CyclicAssumption("IoLocals slot kind");
+            }
+            return kindAssumptions[slotIndex].getAssumption();
+        }
+
+        void kindChanged(int slotIndex) {
+            kindChanges++;
+            if (kindAssumptions[slotIndex] != null) {
+                kindAssumptions[slotIndex].invalidate();
+            }
+        }
 
-    public Integer getLocalSlotIndex(final Object name) {
-        FrameDescriptor frameDescriptor = frame.getFrameDescriptor();
+        /**
+         * Number of slot kind changes seen by this descriptor. A value that keeps growing points at
+         * slots written with values of different kinds.
+         */
+        public int getKindChanges() {
+            return kindChanges;
+        }
+    }
 
+    /**
+     * Returns the index of the slot with the given name in the frame descriptor, or -1 if there is
+     * none. Descriptors built without a {@link SlotIndex} fall back to a linear scan.
+     */
+    public static int findSlotIndex(final FrameDescriptor frameDescriptor, final Object name) {
+        final Object info = frameDescriptor.getInfo();
+        if (info instanceof SlotIndex) {
+            return ((SlotIndex) info).find(name);
+        }
         for (int i = 0; i < frameDescriptor.getNumberOfSlots(); i++) {
             if (name.equals(frameDescriptor.getSlotName(i))) {
                 return i;
             }
         }
-        return null;
+        return -1;
+    }
+
+    public boolean hasLocal(final Object name) {
+        return getLocalSlotIndex(name) != -1;
+    }
+
+    public int getLocalSlotIndex(final Object name) {
+        return findSlotIndex(frame.getFrameDescriptor(), name);
     }
 
     public Object getLocal(final Object name) {
@@ -123,34 +195,99 @@ public final class IoLocals implements IoBaseObject {
     }
 
     public Object getLocalOrDefault(final Object name, final Object defaultValue) {
-        Integer slotIndex = getLocalSlotIndex(name);
-        if (slotIndex != null) {
+        int slotIndex = getLocalSlotIndex(name);
+        if (slotIndex != -1) {
             return frame.getValue(slotIndex);
         }
         return defaultValue;
     }
 
+    public Object getLocalAt(final int slotIndex) {
+        return frame.getValue(slotIndex);
+    }
+
     public Object setLocal(final Object name, final Object value) {
-        Integer slotIndex = getLocalSlotIndex(name);
-        if (slotIndex != null) {
-            if (value instanceof Boolean) {
-                frame.getFrameDescriptor().setSlotKind(slotIndex, FrameSlotKind.Boolean);
-                frame.setBoolean(slotIndex, (Boolean) value);
-            } else if (value instanceof Long) {
-                frame.getFrameDescriptor().setSlotKind(slotIndex, FrameSlotKind.Long);
-                frame.setLong(slotIndex, (Long) value);
-            } else if (value instanceof Double) {
-                frame.getFrameDescriptor().setSlotKind(slotIndex, FrameSlotKind.Double);
-                frame.setDouble(slotIndex, (Double) value);
-            } else {
-                frame.getFrameDescriptor().setSlotKind(slotIndex, FrameSlotKind.Object);
-                frame.setObject(slotIndex, value);
-            }
-            return value;
+        int slotIndex = getLocalSlotIndex(name);
+        if (slotIndex != -1) {
+            return setLocalAt(slotIndex, value);
         }
         return null;
     }
 
+    public Object setLocalAt(final int slotIndex, final Object value) {
+        final FrameSlotKind kind = generalizeSlotKind(frame.getFrameDescriptor(), slotIndex, slotKindOf(value));
+        if (kind == FrameSlotKind.Long) {
+            frame.setLong(slotIndex, (Long) value);
+        } else if (kind == FrameSlotKind.Double) {
+            frame.setDouble(slotIndex, (Double) value);
+        } else if (kind == FrameSlotKind.Boolean) {
+            frame.setBoolean(slotIndex, (Boolean) value);
+        } else {
+            frame.setObject(slotIndex, value);
+        }
+        return value;
+    }
+
+    public static FrameSlotKind slotKindOf(final Object value) {
+        if (value instanceof Long) {
+            return FrameSlotKind.Long;
+        } else if (value instanceof Double) {
+            return FrameSlotKind.Double;
+        } else if (value instanceof Boolean) {
+            return FrameSlotKind.Boolean;
+        }
+        return FrameSlotKind.Object;
+    }
+
+    /**
+     * Makes the slot able to hold a value of the given kind and returns the resulting slot kind.
+     * Slot kinds only ever generalize: an Illegal slot takes the kind of its first value and a slot
+     * that sees a second kind becomes Object for good. Every change invalidates the slot's kind
+     * assumption, so nodes that cached the previous kind respecialize exactly once instead of
+     * flipping the slot back and forth. Long does not widen to Double because integers and floats
+     * print differently.
+     */
+    public static FrameSlotKind generalizeSlotKind(final FrameDescriptor frameDescriptor, final int slotIndex,
+            final FrameSlotKind valueKind) {
+        final FrameSlotKind kind = frameDescriptor.getSlotKind(slotIndex);
+        if (kind == valueKind || kind == FrameSlotKind.Object) {
+            return kind;
+        }
+        return generalizeSlotKindSlowPath(frameDescriptor, slotIndex, kind, valueKind);
+    }
+
+    @TruffleBoundary
+    private static FrameSlotKind generalizeSlotKindSlowPath(final FrameDescriptor frameDescriptor,
+            final int slotIndex, final FrameSlotKind kind, final FrameSlotKind valueKind) {
+        final FrameSlotKind newKind = kind == FrameSlotKind.Illegal ? valueKind : FrameSlotKind.Object;
+        frameDescriptor.setSlotKind(slotIndex, newKind);
+        final Object info = frameDescriptor.getInfo();
+        final int kindChanges;
+        if (info instanceof SlotIndex) {
+            ((SlotIndex) info).kindChanged(slotIndex);
+            kindChanges = ((SlotIndex) info).getKindChanges();
+        } else {
+            kindChanges = -1;
+        }
+        LOGGER.fine(() -> "Slot " + frameDescriptor.getSlotName(slotIndex) + " changed kind from " + kind + " to "
+                + newKind + ", " + kindChanges + " kind changes in its frame");
+        return newKind;
+    }
+
+    /**
+     * Returns an assumption that stays valid as long as the kind of the slot does not change.
+     * Descriptors that are not built by the parser cannot track their slots and return an
+     * assumption that is never valid.
+     */
+    @TruffleBoundary
+    public static Assumption getSlotKindAssumption(final FrameDescriptor frameDescriptor, final int slotIndex) {
+        final Object info = frameDescriptor.getInfo();
+        if (info instanceof SlotIndex) {
+            return ((SlotIndex) info).getKindAssumption(slotIndex);
+        }
+        return Assumption.NEVER_VALID;
+    }
+
     public Object[] getSlotNames() {
         final FrameDescriptor frameDescriptor = frame.getFrameDescriptor();
         int count = frameDescriptor.getNumberOfSlots();
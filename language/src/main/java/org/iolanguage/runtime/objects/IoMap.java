@@ -40,34 +40,601 @@
  */
 package org.iolanguage.runtime.objects;
 
-import java.util.HashMap;
-import java.util.Map;
-
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.StopIterationException;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.UnknownKeyException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.strings.TruffleString;
 
+import org.iolanguage.IoLanguage;
+import org.iolanguage.ShouldNotBeHereException;
+import org.iolanguage.nodes.util.ToTruffleStringNode;
+
+/**
+ * A map split into open-addressing tables by key kind, each created on first use: {@code long}
+ * keys, string keys and objects compared by identity. Every key is kept as it was given, so
+ * {@code keys} hands strings back as strings. A string spelling a {@code long} in its canonical
+ * decimal form is only normalized to look it up, so {@code at("1")} and {@code at(1)} still address
+ * the same entry.
+ */
+@ExportLibrary(InteropLibrary.class)
 public class IoMap extends IoObject {
-    private Map<TruffleString, Object> map;
 
-    public IoMap() {
-        super(IoPrototype.MAP);
-        this.map = new HashMap<TruffleString, Object>();
+    private static final int MAX_LONG_DIGITS = 20;
+
+    /**
+     * Which entry a bounded map gives up when it is full: the least recently or the least frequently
+     * used one.
+     */
+    public enum EvictionPolicy {
+        LRU,
+        LFU
     }
 
-    public IoMap(Map<TruffleString, Object> map) {
+    private LongKeyTable longKeys;
+    private ObjectKeyTable stringKeys;
+    private int numericStringKeys;
+    private ObjectKeyTable identityKeys;
+
+    private long maxSize;
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    private long timeToLive;
+    private EvictionQueue eviction;
+
+    public IoMap() {
         super(IoPrototype.MAP);
-        this.map = map;
     }
 
     public long getMapSize() {
-        return map.size();
+        if (eviction != null) {
+            expire(System.nanoTime());
+        }
+        return getStoredSize();
+    }
+
+    private long getStoredSize() {
+        long size = 0;
+        if (longKeys != null) {
+            size += longKeys.size();
+        }
+        if (stringKeys != null) {
+            size += stringKeys.size();
+        }
+        if (identityKeys != null) {
+            size += identityKeys.size();
+        }
+        return size;
+    }
+
+    public Object getLongKey(long key) {
+        Object stored = getStoredLong(key);
+        return eviction == null ? stored : accessed(stored);
+    }
+
+    public Object putLongKey(long key, Object value) {
+        if (eviction != null) {
+            return putEvicting(key, value);
+        }
+        return putStoredLong(key, value);
+    }
+
+    public Object removeLongKey(long key) {
+        Object stored = removeStoredLong(key);
+        return eviction == null ? stored : removed(stored);
+    }
+
+    @TruffleBoundary
+    public Object getStringKey(TruffleString key) {
+        Object stored = getStoredString(key);
+        return eviction == null ? stored : accessed(stored);
+    }
+
+    @TruffleBoundary
+    public Object putStringKey(TruffleString key, Object value) {
+        if (eviction != null) {
+            return putEvicting(key, value);
+        }
+        return putStoredString(key, value);
+    }
+
+    @TruffleBoundary
+    public Object removeStringKey(TruffleString key) {
+        Object stored = removeStoredString(key);
+        return eviction == null ? stored : removed(stored);
+    }
+
+    public Object getIdentityKey(Object key) {
+        Object stored = identityKeys == null ? null : identityKeys.get(key);
+        return eviction == null ? stored : accessed(stored);
+    }
+
+    public Object putIdentityKey(Object key, Object value) {
+        if (eviction != null) {
+            return putEvicting(key, value);
+        }
+        return putStoredIdentity(key, value);
+    }
+
+    public Object removeIdentityKey(Object key) {
+        Object stored = identityKeys == null ? null : identityKeys.remove(key);
+        return eviction == null ? stored : removed(stored);
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Bounds the map to {@code maxSize} entries, each living at most {@code timeToLive} nanoseconds
+     * after it was last written. Zero lifts either bound; with neither set the map stores its values
+     * directly again. Entries already in the map are carried over, evicting any above the new size.
+     */
+    @TruffleBoundary
+    public void setEviction(long maxSize, EvictionPolicy policy, long timeToLive) {
+        this.maxSize = Math.max(maxSize, 0);
+        this.evictionPolicy = policy;
+        this.timeToLive = Math.max(timeToLive, 0);
+
+        int size = (int) getMapSize();
+        Object[] keys = new Object[size];
+        Object[] values = new Object[size];
+        EntryCursor cursor = entries();
+        for (int i = 0; cursor.hasNext(); i++) {
+            cursor.next();
+            keys[i] = cursor.getKey();
+            values[i] = cursor.getValue();
+        }
+
+        longKeys = null;
+        stringKeys = null;
+        numericStringKeys = 0;
+        identityKeys = null;
+        eviction = this.maxSize > 0 || this.timeToLive > 0 ? new EvictionQueue(policy, this.timeToLive) : null;
+        for (int i = 0; i < size; i++) {
+            if (eviction != null) {
+                putEvicting(keys[i], values[i]);
+            } else {
+                putStored(keys[i], values[i]);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private Object accessed(Object stored) {
+        if (stored == null) {
+            return null;
+        }
+        EvictionQueue.Entry entry = (EvictionQueue.Entry) stored;
+        if (eviction.isExpired(entry, System.nanoTime())) {
+            evict(entry);
+            return null;
+        }
+        eviction.accessed(entry);
+        return entry.value;
+    }
+
+    @TruffleBoundary
+    private Object removed(Object stored) {
+        if (stored == null) {
+            return null;
+        }
+        EvictionQueue.Entry entry = (EvictionQueue.Entry) stored;
+        eviction.removed(entry);
+        return entry.value;
+    }
+
+    @TruffleBoundary
+    private Object putEvicting(Object key, Object value) {
+        long now = System.nanoTime();
+        expire(now);
+        Object stored = getStored(key);
+        if (stored != null) {
+            EvictionQueue.Entry entry = (EvictionQueue.Entry) stored;
+            Object previous = entry.value;
+            entry.value = value;
+            eviction.updated(entry, now);
+            return previous;
+        }
+        putStored(key, eviction.add(key, value, now));
+        if (maxSize > 0) {
+            while (getStoredSize() > maxSize) {
+                evict(eviction.victim());
+            }
+        }
+        return null;
+    }
+
+    private void expire(long now) {
+        EvictionQueue.Entry entry;
+        while ((entry = eviction.expired(now)) != null) {
+            evict(entry);
+        }
+    }
+
+    private void evict(EvictionQueue.Entry entry) {
+        removeStored(entry.key);
+        eviction.removed(entry);
+    }
+
+    /*
+     * Table access by a key as the cursor hands it out: a boxed long, a string or an identity key.
+     * An entry lives in the table of the key it was first stored with. A long and the string
+     * spelling it address the same entry, so a lookup that misses in its own table tries the other
+     * one; the string side is only searched while it holds numeric strings at all.
+     */
+
+    private Object getStored(Object key) {
+        if (key instanceof Long) {
+            return getStoredLong((long) key);
+        } else if (key instanceof TruffleString) {
+            return getStoredString((TruffleString) key);
+        }
+        return identityKeys == null ? null : identityKeys.get(key);
+    }
+
+    private void putStored(Object key, Object stored) {
+        if (key instanceof Long) {
+            putStoredLong((long) key, stored);
+        } else if (key instanceof TruffleString) {
+            putStoredString((TruffleString) key, stored);
+        } else {
+            putStoredIdentity(key, stored);
+        }
+    }
+
+    private void removeStored(Object key) {
+        if (key instanceof Long) {
+            removeStoredLong((long) key);
+        } else if (key instanceof TruffleString) {
+            removeStoredString((TruffleString) key);
+        } else {
+            identityKeys.remove(key);
+        }
+    }
+
+    private Object getStoredLong(long key) {
+        Object stored = longKeys == null ? null : longKeys.get(key);
+        if (stored == null && numericStringKeys > 0) {
+            stored = stringKeys.get(toKeyString(key));
+        }
+        return stored;
+    }
+
+    private Object putStoredLong(long key, Object stored) {
+        if (numericStringKeys > 0) {
+            TruffleString keyString = toKeyString(key);
+            if (stringKeys.get(keyString) != null) {
+                return stringKeys.put(keyString, stored);
+            }
+        }
+        if (longKeys == null) {
+            longKeys = new LongKeyTable();
+        }
+        return longKeys.put(key, stored);
+    }
+
+    private Object removeStoredLong(long key) {
+        Object stored = longKeys == null ? null : longKeys.remove(key);
+        if (stored == null && numericStringKeys > 0) {
+            stored = stringKeys.remove(toKeyString(key));
+            if (stored != null) {
+                numericStringKeys--;
+            }
+        }
+        return stored;
+    }
+
+    private Object getStoredString(TruffleString key) {
+        Object stored = stringKeys == null ? null : stringKeys.get(key);
+        if (stored == null && longKeys != null && isCanonicalLong(key)) {
+            stored = longKeys.get(parseLong(key));
+        }
+        return stored;
+    }
+
+    private Object putStoredString(TruffleString key, Object stored) {
+        boolean numeric = isCanonicalLong(key);
+        if (numeric && longKeys != null) {
+            long longKey = parseLong(key);
+            if (longKeys.get(longKey) != null) {
+                return longKeys.put(longKey, stored);
+            }
+        }
+        if (stringKeys == null) {
+            stringKeys = new ObjectKeyTable(ObjectKeyTable.Equivalence.CONTENT);
+        }
+        Object previous = stringKeys.put(key, stored);
+        if (previous == null && numeric) {
+            numericStringKeys++;
+        }
+        return previous;
+    }
+
+    private Object removeStoredString(TruffleString key) {
+        Object stored = stringKeys == null ? null : stringKeys.remove(key);
+        boolean numeric = isCanonicalLong(key);
+        if (stored != null) {
+            if (numeric) {
+                numericStringKeys--;
+            }
+        } else if (numeric && longKeys != null) {
+            stored = longKeys.remove(parseLong(key));
+        }
+        return stored;
+    }
+
+    private Object putStoredIdentity(Object key, Object stored) {
+        if (identityKeys == null) {
+            identityKeys = new ObjectKeyTable(ObjectKeyTable.Equivalence.IDENTITY);
+        }
+        return identityKeys.put(key, stored);
+    }
+
+    public Object get(Object key, ToTruffleStringNode toTruffleStringNode) {
+        if (key instanceof Long) {
+            return getLongKey((long) key);
+        } else if (key instanceof TruffleString) {
+            return getStringKey((TruffleString) key);
+        } else if (isIdentityKey(key)) {
+            return getIdentityKey(key);
+        }
+        return getStringKey(toTruffleStringNode.execute(key));
+    }
+
+    public Object put(Object key, Object value, ToTruffleStringNode toTruffleStringNode) {
+        if (key instanceof Long) {
+            return putLongKey((long) key, value);
+        } else if (key instanceof TruffleString) {
+            return putStringKey((TruffleString) key, value);
+        } else if (isIdentityKey(key)) {
+            return putIdentityKey(key, value);
+        }
+        return putStringKey(toTruffleStringNode.execute(key), value);
+    }
+
+    public Object remove(Object key, ToTruffleStringNode toTruffleStringNode) {
+        if (key instanceof Long) {
+            return removeLongKey((long) key);
+        } else if (key instanceof TruffleString) {
+            return removeStringKey((TruffleString) key);
+        } else if (isIdentityKey(key)) {
+            return removeIdentityKey(key);
+        }
+        return removeStringKey(toTruffleStringNode.execute(key));
+    }
+
+    /**
+     * Starts an iteration over the entries as they are now, walking the tables in place. Changes
+     * made while it runs copy the affected table first and are not seen by the cursor.
+     */
+    public EntryCursor entries() {
+        if (eviction != null) {
+            expire(System.nanoTime());
+        }
+        return new EntryCursor(this);
+    }
+
+    /**
+     * Objects whose state is not their value are keyed by identity. Sequences, big integers and
+     * nil are keyed by their string form instead.
+     */
+    public static boolean isIdentityKey(Object key) {
+        return key instanceof IoObject && !(key instanceof IoSequence) && !(key instanceof IoBigInteger)
+                && !(key instanceof IoNil);
+    }
+
+    private static boolean isCanonicalLong(TruffleString key) {
+        int length = key.codePointLengthUncached(IoLanguage.STRING_ENCODING);
+        if (length == 0 || length > MAX_LONG_DIGITS) {
+            return false;
+        }
+        int start = key.codePointAtIndexUncached(0, IoLanguage.STRING_ENCODING) == '-' ? 1 : 0;
+        if (start == length) {
+            return false;
+        }
+        int first = key.codePointAtIndexUncached(start, IoLanguage.STRING_ENCODING);
+        if (first < '0' || first > '9' || (first == '0' && length > 1)) {
+            return false;
+        }
+        for (int i = start + 1; i < length; i++) {
+            int c = key.codePointAtIndexUncached(i, IoLanguage.STRING_ENCODING);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        try {
+            key.parseLongUncached();
+            return true;
+        } catch (TruffleString.NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @TruffleBoundary
+    private static TruffleString toKeyString(long key) {
+        return TruffleString.fromLongUncached(key, IoLanguage.STRING_ENCODING, false);
+    }
+
+    private static long parseLong(TruffleString key) {
+        try {
+            return key.parseLongUncached();
+        } catch (TruffleString.NumberFormatException e) {
+            throw new ShouldNotBeHereException(e);
+        }
     }
 
-    public Object getMapElement(TruffleString key) {
-        return map.get(key);
+    @ExportMessage
+    boolean hasHashEntries() {
+        return true;
     }
 
-    public Object putMapElement(TruffleString key, Object value) {
-        return map.put(key, value);
+    @ExportMessage
+    long getHashSize() {
+        return getMapSize();
     }
 
+    @ExportMessage(name = "isHashEntryReadable")
+    @ExportMessage(name = "isHashEntryModifiable")
+    @ExportMessage(name = "isHashEntryRemovable")
+    boolean isHashEntryExisting(Object key,
+            @Shared("toTruffleString") @Cached ToTruffleStringNode toTruffleStringNode) {
+        return get(key, toTruffleStringNode) != null;
+    }
+
+    @ExportMessage
+    boolean isHashEntryInsertable(Object key,
+            @Shared("toTruffleString") @Cached ToTruffleStringNode toTruffleStringNode) {
+        return get(key, toTruffleStringNode) == null;
+    }
+
+    @ExportMessage
+    Object readHashValue(Object key,
+            @Shared("toTruffleString") @Cached ToTruffleStringNode toTruffleStringNode) throws UnknownKeyException {
+        Object value = get(key, toTruffleStringNode);
+        if (value == null) {
+            throw UnknownKeyException.create(key);
+        }
+        return value;
+    }
+
+    @ExportMessage
+    void writeHashEntry(Object key, Object value,
+            @Shared("toTruffleString") @Cached ToTruffleStringNode toTruffleStringNode) {
+        put(key, value, toTruffleStringNode);
+    }
+
+    @ExportMessage
+    void removeHashEntry(Object key,
+            @Shared("toTruffleString") @Cached ToTruffleStringNode toTruffleStringNode) throws UnknownKeyException {
+        if (remove(key, toTruffleStringNode) == null) {
+            throw UnknownKeyException.create(key);
+        }
+    }
+
+    @ExportMessage
+    Object getHashEntriesIterator() {
+        return new EntriesIterator(entries());
+    }
+
+    /**
+     * Walks the long, string and identity tables one after the other, stopping at occupied slots.
+     * Long keys come out boxed.
+     */
+    public static final class EntryCursor {
+
+        private static final int TABLES = 3;
+
+        private final long[] longKeys;
+        private final Object[] stringKeys;
+        private final Object[] identityKeys;
+        private final Object[][] values;
+        private int table;
+        private int index = -1;
+        private Object key;
+        private Object value;
+
+        EntryCursor(IoMap map) {
+            this.longKeys = map.longKeys == null ? null : map.longKeys.sharedKeys();
+            this.stringKeys = map.stringKeys == null ? null : map.stringKeys.sharedKeys();
+            this.identityKeys = map.identityKeys == null ? null : map.identityKeys.sharedKeys();
+            this.values = new Object[][] {
+                    map.longKeys == null ? null : map.longKeys.sharedValues(),
+                    map.stringKeys == null ? null : map.stringKeys.sharedValues(),
+                    map.identityKeys == null ? null : map.identityKeys.sharedValues() };
+            seek();
+        }
+
+        public boolean hasNext() {
+            return table < TABLES;
+        }
+
+        /**
+         * Moves to the next entry, whose key and value are then available from {@link #getKey()}
+         * and {@link #getValue()}.
+         */
+        public void next() {
+            assert hasNext();
+            value = values[table][index];
+            if (value instanceof EvictionQueue.Entry) {
+                value = ((EvictionQueue.Entry) value).value;
+            }
+            switch (table) {
+                case 0:
+                    key = longKeys[index];
+                    break;
+                case 1:
+                    key = stringKeys[index];
+                    break;
+                default:
+                    key = identityKeys[index];
+                    break;
+            }
+            seek();
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        private void seek() {
+            while (table < TABLES) {
+                Object[] tableValues = values[table];
+                if (tableValues != null) {
+                    while (++index < tableValues.length) {
+                        if (tableValues[index] != null) {
+                            return;
+                        }
+                    }
+                }
+                table++;
+                index = -1;
+            }
+        }
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    static final class EntriesIterator implements TruffleObject {
+
+        private final EntryCursor cursor;
+
+        EntriesIterator(EntryCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @ExportMessage
+        boolean isIterator() {
+            return true;
+        }
+
+        @ExportMessage
+        boolean hasIteratorNextElement() {
+            return cursor.hasNext();
+        }
+
+        @ExportMessage
+        Object getIteratorNextElement() throws StopIterationException {
+            if (!cursor.hasNext()) {
+                throw StopIterationException.create();
+            }
+            cursor.next();
+            return new IoList(new Object[] { cursor.getKey(), cursor.getValue() });
+        }
+    }
 }
@@ -40,6 +40,8 @@
  */
  package org.iolanguage.runtime.objects;
 
+import com.oracle.truffle.api.object.PropertyGetter;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.strings.TruffleString;
 
 import org.iolanguage.nodes.IoNode;
@@ -51,19 +53,28 @@ public class IoMessage extends IoObject {
 
     private static final TruffleString SYMBOL_NAME = Symbols.constant("name");
 
+    private static final Shape ROOT_SHAPE = Shape.newBuilder().layout(IoMessage.class).build();
+    private static final Shape DECLARED_SHAPE = declareSlots(new IoMessage(), SYMBOL_NAME);
+    private static final PropertyGetter NAME_GETTER = DECLARED_SHAPE.makePropertyGetter(SYMBOL_NAME);
+
     @DynamicField
     private Object name;
 
     private final IoNode[] argumentNodes;
 
+    private IoMessage() {
+        super(ROOT_SHAPE, null);
+        this.argumentNodes = null;
+    }
+
     public IoMessage(final TruffleString name, final IoNode[] argumentNodes) {
-        super(IoPrototype.MESSAGE);
+        super(ROOT_SHAPE, IoPrototype.MESSAGE);
         setSymbolName(name);
         this.argumentNodes = argumentNodes;
     }
 
     public TruffleString getSymbolName() {
-        return (TruffleString)IoObjectUtil.getOrDefault(this, SYMBOL_NAME);
+        return (TruffleString) getDeclaredSlot(NAME_GETTER);
     }
 
     protected void setSymbolName(final TruffleString name) {
@@ -43,6 +43,7 @@
  */
 package org.iolanguage.runtime.objects;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.dsl.Cached;
@@ -57,8 +58,10 @@ import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.PropertyGetter;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.strings.TruffleString;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
 import com.oracle.truffle.api.utilities.TriState;
 
 import org.iolanguage.IoLanguage;
@@ -73,6 +76,16 @@ public class IoObject extends DynamicObject implements IoBaseObject {
 
     protected IoBaseObject prototype;
 
+    /**
+     * Created lazily, only objects that take part in a cached slot lookup ever allocate it.
+     */
+    private CyclicAssumption layoutAssumption;
+
+    /**
+     * Set while this object is part of an entry in the slot lookup cache.
+     */
+    private boolean inLookupCache;
+
     public IoObject() {
         super(SHAPE);
         this.prototype = IoPrototype.OBJECT;
@@ -93,9 +106,83 @@ public class IoObject extends DynamicObject implements IoBaseObject {
     }
 
     public void setPrototype(final IoBaseObject prototype) {
+        if (this.prototype != prototype) {
+            invalidateLayout();
+        }
         this.prototype = prototype;
     }
 
+    /**
+     * Returns an assumption that stays valid as long as no slot is added to or removed from this
+     * object and its prototype is not replaced. Slot lookup caches guard the objects they walk
+     * through with it.
+     */
+    @TruffleBoundary
+    public Assumption getLayoutAssumption() {
+        if (layoutAssumption == null) {
+            layoutAssumption = new CyclicAssumption("IoObject layout");
+        }
+        return layoutAssumption.getAssumption();
+    }
+
+    public void markInLookupCache() {
+        inLookupCache = true;
+    }
+
+    /**
+     * Called whenever a slot is added to or removed from this object or its prototype is replaced.
+     * Invalidates the layout assumption and, if this object took part in a cached lookup, flushes
+     * the slot lookup cache of the language.
+     */
+    public void invalidateLayout() {
+        if (layoutAssumption != null || inLookupCache) {
+            invalidateLayoutBoundary();
+        }
+    }
+
+    @TruffleBoundary
+    private void invalidateLayoutBoundary() {
+        if (layoutAssumption != null) {
+            layoutAssumption.invalidate();
+        }
+        if (inLookupCache) {
+            inLookupCache = false;
+            IoObjectUtil.flushLookupCache();
+        }
+    }
+
+    /**
+     * Returns the shape the template reaches once the given slots are declared. Slots are declared
+     * holding null so they get generic locations and storing any value later keeps the shape.
+     * Runtime objects declare their well-known slots in the same order when constructed, so they
+     * all end up sharing this shape.
+     */
+    protected static Shape declareSlots(final IoObject template, final Object... keys) {
+        DynamicObjectLibrary objectLibrary = DynamicObjectLibrary.getUncached();
+        for (Object key : keys) {
+            objectLibrary.put(template, key, null);
+        }
+        return template.getShape();
+    }
+
+    /**
+     * Reads a well-known slot directly from its location while the object still has its declared
+     * shape, and falls back to a regular lookup once scripts have changed the object's slots.
+     */
+    protected final Object getDeclaredSlot(final PropertyGetter getter) {
+        if (getter.accepts(this)) {
+            return getter.get(this);
+        }
+        return IoObjectUtil.getOrDefault(this, getter.getKey());
+    }
+
+    /**
+     * Objects that create some of their slots on first use fill them in here. Called before the
+     * slots are enumerated or looked up reflectively.
+     */
+    public void materializeSlots() {
+    }
+
     @ExportMessage
     boolean hasLanguage() {
         return true;
@@ -137,6 +224,7 @@ public class IoObject extends DynamicObject implements IoBaseObject {
 
     @Override
     public String toString() {
+        materializeSlots();
         StringBuilder sb = new StringBuilder(toStringInner());
         DynamicObjectLibrary objInterop = DynamicObjectLibrary.getUncached();
         Object[] keys = objInterop.getKeyArray(this);
@@ -205,8 +293,10 @@ public class IoObject extends DynamicObject implements IoBaseObject {
             @Cached @Shared("fromJavaStringNode") TruffleString.FromJavaStringNode fromJavaStringNode,
             @CachedLibrary("this") DynamicObjectLibrary objectLibrary) throws UnknownIdentifierException {
         TruffleString memberTS = fromJavaStringNode.execute(member, IoLanguage.STRING_ENCODING);
+        materializeSlots();
         if (objectLibrary.containsKey(this, memberTS)) {
             objectLibrary.removeKey(this, memberTS);
+            invalidateLayout();
         } else {
             throw UnknownIdentifierException.create(member);
         }
@@ -215,6 +305,7 @@ public class IoObject extends DynamicObject implements IoBaseObject {
     @ExportMessage
     Object getMembers(boolean includeInternal,
             @CachedLibrary("this") DynamicObjectLibrary objectLibrary) {
+        materializeSlots();
         return new IoList(objectLibrary.getKeyArray(this));
     }
 
@@ -224,6 +315,7 @@ public class IoObject extends DynamicObject implements IoBaseObject {
     boolean existsMember(String member,
             @Cached @Shared("fromJavaStringNode") TruffleString.FromJavaStringNode fromJavaStringNode,
             @CachedLibrary("this") DynamicObjectLibrary objectLibrary) {
+        materializeSlots();
         return objectLibrary.containsKey(this, fromJavaStringNode.execute(member, IoLanguage.STRING_ENCODING));
     }
 
@@ -238,6 +330,7 @@ public class IoObject extends DynamicObject implements IoBaseObject {
             @Cached @Shared("fromJavaStringNode") TruffleString.FromJavaStringNode fromJavaStringNode)
             throws UnknownIdentifierException {
         TruffleString nameTS = fromJavaStringNode.execute(name, IoLanguage.STRING_ENCODING);
+        materializeSlots();
         Object result = IoObjectUtil.getOrDefault(this, nameTS, null);
         if (result == null) {
             throw UnknownIdentifierException.create(name);
@@ -45,9 +45,15 @@ package org.iolanguage.runtime.objects;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
@@ -61,9 +67,10 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.strings.TruffleString;
 
 import org.iolanguage.IoLanguage;
-import org.iolanguage.NotImplementedException;
 import org.iolanguage.ShouldNotBeHereException;
 import org.iolanguage.runtime.Symbols;
+import org.iolanguage.runtime.exceptions.IoLanguageException;
+import org.iolanguage.runtime.exceptions.OutOfBoundsException;
 
 @ExportLibrary(InteropLibrary.class)
 public class IoSequence extends IoObject {
@@ -144,9 +151,28 @@ public class IoSequence extends IoObject {
         }
     }
 
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Off-heap sequences are split into direct buffers of CHUNK_SIZE bytes, which is a multiple of
+     * every item size, so no item straddles two chunks and positions can go past 2 GB.
+     */
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final double UINT64_SIGN_BIT = 0x1p63;
+    private static final long MAX_HEAP_BYTES = Integer.MAX_VALUE - Long.BYTES;
+    private static final long MAX_OFF_HEAP_BYTES = CHUNK_SIZE * Integer.MAX_VALUE;
+    private static final ByteBuffer[] NO_CHUNKS = new ByteBuffer[0];
+    private static final byte[] ZEROS = new byte[4096];
+
     private ItemType itemType;
     private Encoding encoding;
     private ByteBuffer byteBuffer;
+    private ByteBuffer[] chunks;
+    private long byteSize;
+    private TruffleString stringView;
+    private boolean shared;
 
     public IoSequence() {
         this(ItemType.UINT8, Encoding.ASCII, 0);
@@ -156,35 +182,230 @@ public class IoSequence extends IoObject {
         super(IoPrototype.SEQUENCE);
         this.itemType = itemType;
         this.encoding = encoding;
-        this.byteBuffer = ByteBuffer.allocate(size * itemType.getTypeSize());
+        this.byteSize = (long) size * itemType.getTypeSize();
+        this.byteBuffer = ByteBuffer.allocate((int) byteSize);
+    }
+
+    public long getSize() {
+        return getArraySize();
     }
 
-    
     @ExportMessage
     long getArraySize() {
-        int capacity = byteBuffer.capacity();
-        assert capacity % itemType.getTypeSize() == 0;
-        return capacity / itemType.getTypeSize();
+        assert byteSize % itemType.getTypeSize() == 0;
+        return byteSize / itemType.getTypeSize();
     }
 
-    void setArraySize(long newSize) {
-        if (newSize < 0) {
-            throw new NotImplementedException();
+    /**
+     * Resizes the sequence to {@code newSize} items. The buffer only grows, geometrically, so
+     * growing one item at a time is amortized O(1); items past the old size read as zero.
+     */
+    public void setArraySize(long newSize) {
+        if (newSize < 0 || newSize > getMaxArraySize()) {
+            throw sizeOutOfRange(newSize);
         }
-        long currentSize = getArraySize();
-        if (newSize != currentSize) {
-            int newCapacity = (int)newSize * itemType.getTypeSize();
-            ByteBuffer newByteBuffer = ByteBuffer.allocate(newCapacity);
-            if (byteBuffer != null) {
-                int currentCapacity = byteBuffer.capacity();
-                int minCapacity = Math.min(newCapacity, currentCapacity);
-                for (int index = 0; index < minCapacity; index++) {
-                    newByteBuffer.put(index, byteBuffer.get(index));
-                }
-            }
+        setByteSize(newSize * itemType.getTypeSize());
+        assert newSize == getArraySize();
+    }
+
+    private long getMaxArraySize() {
+        return (isOffHeap() ? MAX_OFF_HEAP_BYTES : MAX_HEAP_BYTES) / itemType.getTypeSize();
+    }
+
+    @TruffleBoundary
+    private IoLanguageException sizeOutOfRange(long size) {
+        return new IoLanguageException("Sequence size " + size + " is out of range 0 to " + getMaxArraySize(), null);
+    }
+
+    private void setByteSize(long newByteSize) {
+        stringView = null;
+        if (newByteSize > getCapacity()) {
+            grow(newByteSize);
+        } else if (newByteSize < byteSize) {
+            // the bytes past the end must read as zero when the sequence grows back over them
+            fillZero(newByteSize, byteSize);
+        }
+        byteSize = newByteSize;
+    }
+
+    private long getCapacity() {
+        if (chunks == null) {
+            return byteBuffer.capacity();
+        }
+        int last = chunks.length - 1;
+        return last < 0 ? 0 : last * CHUNK_SIZE + chunks[last].capacity();
+    }
+
+    private void grow(long minCapacity) {
+        if (chunks == null) {
+            ByteBuffer newByteBuffer = ByteBuffer.allocate((int) grownCapacity(minCapacity, MAX_HEAP_BYTES));
+            newByteBuffer.put(0, byteBuffer, 0, (int) byteSize);
             byteBuffer = newByteBuffer;
+            shared = false;
+            return;
+        }
+        // full chunks are never copied, only the last one grows until it reaches CHUNK_SIZE
+        while (getCapacity() < minCapacity) {
+            int last = chunks.length - 1;
+            if (last < 0 || chunks[last].capacity() == CHUNK_SIZE) {
+                chunks = Arrays.copyOf(chunks, last + 2);
+                chunks[last + 1] = ByteBuffer.allocateDirect((int) grownCapacity(minCapacity - (last + 1) * CHUNK_SIZE, CHUNK_SIZE));
+            } else {
+                ByteBuffer chunk = ByteBuffer.allocateDirect((int) grownCapacity(minCapacity - last * CHUNK_SIZE, CHUNK_SIZE));
+                chunk.put(0, chunks[last], 0, chunks[last].capacity());
+                chunks[last] = chunk;
+            }
+        }
+    }
+
+    private static long grownCapacity(long minCapacity, long maxCapacity) {
+        return Math.min(Math.max(INITIAL_CAPACITY, minCapacity + (minCapacity >> 1)), maxCapacity);
+    }
+
+    public boolean isOffHeap() {
+        return chunks != null;
+    }
+
+    /**
+     * Moves the items to direct buffers outside the Java heap, where the garbage collector never
+     * scans or copies them and the size is no longer limited to 2 GB, or back to the heap.
+     */
+    @TruffleBoundary
+    public void setOffHeap(boolean offHeap) {
+        if (offHeap == isOffHeap()) {
+            return;
+        }
+        stringView = null;
+        shared = false;
+        if (offHeap) {
+            ByteBuffer heap = byteBuffer;
+            chunks = NO_CHUNKS;
+            byteBuffer = null;
+            grow(byteSize);
+            putBytes(0, heap.array(), 0, (int) byteSize);
+        } else {
+            if (byteSize > MAX_HEAP_BYTES) {
+                throw new IoLanguageException("Sequence of " + byteSize + " bytes is too large to be moved to the heap", null);
+            }
+            byte[] bytes = new byte[(int) byteSize];
+            getBytes(0, bytes, 0, bytes.length);
+            chunks = null;
+            byteBuffer = ByteBuffer.wrap(bytes);
+        }
+    }
+
+    /**
+     * Empties the sequence and drops its storage, so that the memory of an off-heap sequence is
+     * returned as soon as its buffers are collected instead of being kept for later growth.
+     */
+    public void release() {
+        stringView = null;
+        shared = false;
+        if (chunks != null) {
+            chunks = NO_CHUNKS;
+        } else {
+            byteBuffer = ByteBuffer.allocate(0);
+        }
+        byteSize = 0;
+    }
+
+    /*
+     * Items are addressed by a long byte position, resolved to the buffer holding it and the
+     * offset within that buffer.
+     */
+
+    private ByteBuffer bufferAt(long position) {
+        return chunks == null ? byteBuffer : chunks[(int) (position >>> CHUNK_SHIFT)];
+    }
+
+    private ByteBuffer writableBufferAt(long position) {
+        if (stringView != null || shared) {
+            unshare();
+        }
+        return bufferAt(position);
+    }
+
+    /**
+     * Drops the string view before the items change, copying the bytes first if the view was
+     * built on them.
+     */
+    private void unshare() {
+        stringView = null;
+        if (shared) {
+            byteBuffer = ByteBuffer.wrap(byteBuffer.array().clone());
+            shared = false;
+        }
+    }
+
+    private int offsetAt(long position) {
+        return chunks == null ? (int) position : (int) (position & CHUNK_MASK);
+    }
+
+    /**
+     * How many bytes from {@code position} on are in the same buffer.
+     */
+    private long bytesAfter(long position) {
+        return chunks == null ? byteBuffer.capacity() - position : CHUNK_SIZE - (position & CHUNK_MASK);
+    }
+
+    /**
+     * How many bytes up to {@code end} are in the same buffer.
+     */
+    private long bytesBefore(long end) {
+        return chunks == null ? end : ((end - 1) & CHUNK_MASK) + 1;
+    }
+
+    /**
+     * Copies {@code length} bytes between two sequences, or within one when the ranges may
+     * overlap, one buffer-sized segment at a time.
+     */
+    private static void copyBytes(IoSequence source, long from, IoSequence target, long to, long length) {
+        if (source == target && to > from) {
+            long sourceEnd = from + length;
+            long targetEnd = to + length;
+            while (sourceEnd > from) {
+                int count = (int) Math.min(sourceEnd - from, Math.min(source.bytesBefore(sourceEnd), target.bytesBefore(targetEnd)));
+                sourceEnd -= count;
+                targetEnd -= count;
+                target.writableBufferAt(targetEnd).put(target.offsetAt(targetEnd), source.bufferAt(sourceEnd), source.offsetAt(sourceEnd), count);
+            }
+        } else {
+            long end = from + length;
+            while (from < end) {
+                int count = (int) Math.min(end - from, Math.min(source.bytesAfter(from), target.bytesAfter(to)));
+                target.writableBufferAt(to).put(target.offsetAt(to), source.bufferAt(from), source.offsetAt(from), count);
+                from += count;
+                to += count;
+            }
+        }
+    }
+
+    private void fillZero(long from, long to) {
+        while (from < to) {
+            int count = (int) Math.min(to - from, Math.min(bytesAfter(from), ZEROS.length));
+            writableBufferAt(from).put(offsetAt(from), ZEROS, 0, count);
+            from += count;
+        }
+    }
+
+    private void putBytes(long position, byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            int count = (int) Math.min(end - offset, bytesAfter(position));
+            writableBufferAt(position).put(offsetAt(position), bytes, offset, count);
+            offset += count;
+            position += count;
+        }
+    }
+
+    private void getBytes(long position, byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            int count = (int) Math.min(end - offset, bytesAfter(position));
+            bufferAt(position).get(offsetAt(position), bytes, offset, count);
+            offset += count;
+            position += count;
         }
-        assert newSize == getArraySize();
     }
 
     public TruffleString getItemType() {
@@ -198,14 +419,11 @@ public class IoSequence extends IoObject {
     public void setItemType(TruffleString itemTypeName) {
         ItemType newItemType = ItemType.fromTruffleString(itemTypeName);
         if (newItemType == null) {
-            throw new NotImplementedException();
+            throw unknownName("item type", itemTypeName);
         }
-        int currentCapacity = byteBuffer.capacity();
         int newItemSize = newItemType.getTypeSize();
-        if (currentCapacity % newItemSize != 0) {
-            int quot = currentCapacity / newItemSize;
-            int newCapacity = (quot + 1) * newItemSize;
-            setArraySize(newCapacity / itemType.getTypeSize());
+        if (byteSize % newItemSize != 0) {
+            setByteSize((byteSize / newItemSize + 1) * newItemSize);
         }
         itemType = newItemType;
     }
@@ -213,118 +431,790 @@ public class IoSequence extends IoObject {
     public void setEncoding(TruffleString encodingName) {
         Encoding newEncoding = Encoding.fromTruffleString(encodingName);
         if (newEncoding == null) {
-            throw new NotImplementedException();
+            throw unknownName("encoding", encodingName);
         }
         encoding = newEncoding;
     }
 
-    public long getInt8(int position) {
-        return (long) byteBuffer.get(position);
+    @TruffleBoundary
+    private static IoLanguageException unknownName(String kind, TruffleString name) {
+        return new IoLanguageException("Unknown Sequence " + kind + " '" + name + "'", null);
+    }
+
+    public void append(Object value) {
+        putItem(getArraySize(), value);
+    }
+
+    public void appendSeq(IoSequence other) {
+        atInsertSeq(getArraySize(), other);
+    }
+
+    public void appendBytes(byte[] bytes, int offset, int length) {
+        atInsertBytes(getArraySize(), bytes, offset, length);
+    }
+
+    /**
+     * Inserts the items of {@code other} before {@code index}. Items of the same type are copied
+     * as raw bytes, other sequences are converted item by item.
+     */
+    @TruffleBoundary
+    public void atInsertSeq(long index, IoSequence other) {
+        long count = other.getArraySize();
+        if (other.itemType != itemType) {
+            openGap(index, count);
+            for (long i = 0; i < count; i++) {
+                putItem(index + i, other.getItem(i));
+            }
+        } else if (other == this) {
+            // the bytes after the gap have moved behind it
+            long length = byteSize;
+            long position = openGap(index, count);
+            copyBytes(this, 0, this, position, position);
+            copyBytes(this, position + length, this, position + position, length - position);
+        } else {
+            long position = openGap(index, count);
+            copyBytes(other, 0, this, position, other.byteSize);
+        }
+    }
+
+    /**
+     * Inserts {@code length} bytes, taken as uint8 items, before {@code index}.
+     */
+    @TruffleBoundary
+    public void atInsertBytes(long index, byte[] bytes, int offset, int length) {
+        long position = openGap(index, length);
+        if (itemType.getTypeSize() == Byte.BYTES) {
+            putBytes(position, bytes, offset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                putItem(index + i, (long) (bytes[offset + i] & 0xff));
+            }
+        }
+    }
+
+    /**
+     * Removes the items from {@code start} up to and including {@code end}.
+     */
+    @TruffleBoundary
+    public void removeSlice(long start, long end) {
+        long typeSize = itemType.getTypeSize();
+        long from = start * typeSize;
+        long to = (end + 1) * typeSize;
+        copyBytes(this, to, this, from, byteSize - to);
+        setByteSize(byteSize - (to - from));
+    }
+
+    /**
+     * Makes room for {@code count} items before {@code index}, moving the items after it in bulk,
+     * and returns the byte position of the gap.
+     */
+    private long openGap(long index, long count) {
+        if (index < 0 || index > getArraySize()) {
+            throw OutOfBoundsException.outOfBoundsInteger(null, index);
+        }
+        if (count > getMaxArraySize() - getArraySize()) {
+            throw sizeOutOfRange(getArraySize() + count);
+        }
+        long position = index * itemType.getTypeSize();
+        long tail = byteSize - position;
+        setByteSize(byteSize + count * itemType.getTypeSize());
+        copyBytes(this, position, this, byteSize - tail, tail);
+        return position;
+    }
+
+    private Object getItem(long index) {
+        try {
+            return readArrayElement(index);
+        } catch (InvalidArrayIndexException e) {
+            throw new ShouldNotBeHereException(e);
+        }
+    }
+
+    private void putItem(long index, Object value) {
+        try {
+            writeArrayElement(index, value);
+        } catch (InvalidArrayIndexException e) {
+            throw new ShouldNotBeHereException(e);
+        }
+    }
+
+    /**
+     * Arithmetic applied in place to every item by {@link #apply(Arithmetic, long)},
+     * {@link #apply(Arithmetic, double)} and {@link #apply(Arithmetic, IoSequence)}.
+     */
+    public enum Arithmetic {
+        ADD,
+        SUBTRACT,
+        MULTIPLY,
+        DIVIDE
+    }
+
+    public boolean hasFloatItems() {
+        return itemType == ItemType.FLOAT32 || itemType == ItemType.FLOAT64;
+    }
+
+    /*
+     * The numeric operations below work on blocks of up to BLOCK_ITEMS items. Each block is read
+     * through a typed view of the buffer holding it into a long[] or double[], computing in double
+     * when either side holds floats or when dividing, and in long otherwise. The item type and the
+     * operation are resolved once per block, so the loops over the blocks are plain array loops.
+     * Results are stored back with the conversion of the item type.
+     */
+
+    private static final int BLOCK_ITEMS = 1024;
+
+    @TruffleBoundary
+    public void apply(Arithmetic operation, long operand) {
+        if (hasFloatItems() || operation == Arithmetic.DIVIDE) {
+            apply(operation, (double) operand);
+            return;
+        }
+        unshare();
+        final long size = getArraySize();
+        final long[] block = new long[BLOCK_ITEMS];
+        for (long index = 0, count; index < size; index += count) {
+            count = blockItemsAt(index);
+            readLongs(index, block, (int) count);
+            compute(operation, block, operand, (int) count);
+            writeLongs(index, block, (int) count);
+        }
+    }
+
+    @TruffleBoundary
+    public void apply(Arithmetic operation, double operand) {
+        unshare();
+        final long size = getArraySize();
+        final double[] block = new double[BLOCK_ITEMS];
+        for (long index = 0, count; index < size; index += count) {
+            count = blockItemsAt(index);
+            readDoubles(index, block, (int) count);
+            compute(operation, block, operand, (int) count);
+            writeDoubles(index, block, (int) count);
+        }
+    }
+
+    /**
+     * Combines every item with the item at the same index of {@code other}, which must have the
+     * same size.
+     */
+    @TruffleBoundary
+    public void apply(Arithmetic operation, IoSequence other) {
+        assert other.getArraySize() == getArraySize();
+        unshare();
+        final long size = getArraySize();
+        if (hasFloatItems() || other.hasFloatItems() || operation == Arithmetic.DIVIDE) {
+            final double[] block = new double[BLOCK_ITEMS];
+            final double[] otherBlock = new double[BLOCK_ITEMS];
+            for (long index = 0, count; index < size; index += count) {
+                count = Math.min(blockItemsAt(index), other.blockItemsAt(index));
+                readDoubles(index, block, (int) count);
+                other.readDoubles(index, otherBlock, (int) count);
+                compute(operation, block, otherBlock, (int) count);
+                writeDoubles(index, block, (int) count);
+            }
+        } else {
+            final long[] block = new long[BLOCK_ITEMS];
+            final long[] otherBlock = new long[BLOCK_ITEMS];
+            for (long index = 0, count; index < size; index += count) {
+                count = Math.min(blockItemsAt(index), other.blockItemsAt(index));
+                readLongs(index, block, (int) count);
+                other.readLongs(index, otherBlock, (int) count);
+                compute(operation, block, otherBlock, (int) count);
+                writeLongs(index, block, (int) count);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    public void square() {
+        apply(Arithmetic.MULTIPLY, this);
+    }
+
+    @TruffleBoundary
+    public void sqrt() {
+        unshare();
+        final long size = getArraySize();
+        final double[] block = new double[BLOCK_ITEMS];
+        for (long index = 0, count; index < size; index += count) {
+            count = blockItemsAt(index);
+            readDoubles(index, block, (int) count);
+            for (int i = 0; i < count; i++) {
+                block[i] = Math.sqrt(block[i]);
+            }
+            writeDoubles(index, block, (int) count);
+        }
+    }
+
+    @TruffleBoundary
+    public Object sum() {
+        final long size = getArraySize();
+        if (hasFloatItems()) {
+            final double[] block = new double[BLOCK_ITEMS];
+            double sum = 0.0;
+            for (long index = 0, count; index < size; index += count) {
+                count = blockItemsAt(index);
+                readDoubles(index, block, (int) count);
+                for (int i = 0; i < count; i++) {
+                    sum += block[i];
+                }
+            }
+            return sum;
+        }
+        final long[] block = new long[BLOCK_ITEMS];
+        long sum = 0;
+        for (long index = 0, count; index < size; index += count) {
+            count = blockItemsAt(index);
+            readLongs(index, block, (int) count);
+            for (int i = 0; i < count; i++) {
+                sum += block[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The mean of the items, of which there must be at least one.
+     */
+    @TruffleBoundary
+    public double mean() {
+        assert getArraySize() > 0;
+        return ((Number) sum()).doubleValue() / getArraySize();
+    }
+
+    /**
+     * The sum of the products of the items at the same index, {@code other} having the same size.
+     */
+    @TruffleBoundary
+    public Object dot(IoSequence other) {
+        assert other.getArraySize() == getArraySize();
+        final long size = getArraySize();
+        if (hasFloatItems() || other.hasFloatItems()) {
+            final double[] block = new double[BLOCK_ITEMS];
+            final double[] otherBlock = new double[BLOCK_ITEMS];
+            double sum = 0.0;
+            for (long index = 0, count; index < size; index += count) {
+                count = Math.min(blockItemsAt(index), other.blockItemsAt(index));
+                readDoubles(index, block, (int) count);
+                other.readDoubles(index, otherBlock, (int) count);
+                for (int i = 0; i < count; i++) {
+                    sum += block[i] * otherBlock[i];
+                }
+            }
+            return sum;
+        }
+        final long[] block = new long[BLOCK_ITEMS];
+        final long[] otherBlock = new long[BLOCK_ITEMS];
+        long sum = 0;
+        for (long index = 0, count; index < size; index += count) {
+            count = Math.min(blockItemsAt(index), other.blockItemsAt(index));
+            readLongs(index, block, (int) count);
+            other.readLongs(index, otherBlock, (int) count);
+            for (int i = 0; i < count; i++) {
+                sum += block[i] * otherBlock[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The smallest item, or {@code null} when the sequence is empty.
+     */
+    @TruffleBoundary
+    public Object min() {
+        if (byteSize == 0) {
+            return null;
+        }
+        final long size = getArraySize();
+        if (hasFloatItems()) {
+            final double[] block = new double[BLOCK_ITEMS];
+            double min = Double.POSITIVE_INFINITY;
+            for (long index = 0, count; index < size; index += count) {
+                count = blockItemsAt(index);
+                readDoubles(index, block, (int) count);
+                for (int i = 0; i < count; i++) {
+                    min = Math.min(min, block[i]);
+                }
+            }
+            return min;
+        }
+        final long[] block = new long[BLOCK_ITEMS];
+        long min = Long.MAX_VALUE;
+        for (long index = 0, count; index < size; index += count) {
+            count = blockItemsAt(index);
+            readLongs(index, block, (int) count);
+            for (int i = 0; i < count; i++) {
+                min = Math.min(min, block[i]);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * The largest item, or {@code null} when the sequence is empty.
+     */
+    @TruffleBoundary
+    public Object max() {
+        if (byteSize == 0) {
+            return null;
+        }
+        final long size = getArraySize();
+        if (hasFloatItems()) {
+            final double[] block = new double[BLOCK_ITEMS];
+            double max = Double.NEGATIVE_INFINITY;
+            for (long index = 0, count; index < size; index += count) {
+                count = blockItemsAt(index);
+                readDoubles(index, block, (int) count);
+                for (int i = 0; i < count; i++) {
+                    max = Math.max(max, block[i]);
+                }
+            }
+            return max;
+        }
+        final long[] block = new long[BLOCK_ITEMS];
+        long max = Long.MIN_VALUE;
+        for (long index = 0, count; index < size; index += count) {
+            count = blockItemsAt(index);
+            readLongs(index, block, (int) count);
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, block[i]);
+            }
+        }
+        return max;
+    }
+
+    private static void compute(Arithmetic operation, double[] left, double right, int count) {
+        switch (operation) {
+            case ADD:
+                for (int i = 0; i < count; i++) {
+                    left[i] += right;
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < count; i++) {
+                    left[i] -= right;
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < count; i++) {
+                    left[i] *= right;
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < count; i++) {
+                    left[i] /= right;
+                }
+                break;
+            default:
+                throw new ShouldNotBeHereException();
+        }
+    }
+
+    private static void compute(Arithmetic operation, double[] left, double[] right, int count) {
+        switch (operation) {
+            case ADD:
+                for (int i = 0; i < count; i++) {
+                    left[i] += right[i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < count; i++) {
+                    left[i] -= right[i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < count; i++) {
+                    left[i] *= right[i];
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < count; i++) {
+                    left[i] /= right[i];
+                }
+                break;
+            default:
+                throw new ShouldNotBeHereException();
+        }
     }
 
-    public long getUInt8(int position) {
-        return ((long) (byteBuffer.get(position) & (long) 0xff));
+    private static void compute(Arithmetic operation, long[] left, long right, int count) {
+        switch (operation) {
+            case ADD:
+                for (int i = 0; i < count; i++) {
+                    left[i] += right;
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < count; i++) {
+                    left[i] -= right;
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < count; i++) {
+                    left[i] *= right;
+                }
+                break;
+            default:
+                throw new ShouldNotBeHereException();
+        }
     }
 
-    public void putInt8(int position, long value) {
-        byteBuffer.put(position, (byte) value);
+    private static void compute(Arithmetic operation, long[] left, long[] right, int count) {
+        switch (operation) {
+            case ADD:
+                for (int i = 0; i < count; i++) {
+                    left[i] += right[i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < count; i++) {
+                    left[i] -= right[i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < count; i++) {
+                    left[i] *= right[i];
+                }
+                break;
+            default:
+                throw new ShouldNotBeHereException();
+        }
     }
 
-    public void putUInt8(int position, long value) {
-        byteBuffer.put(position, (byte) (value & 0xff));
+    /**
+     * How many items from {@code index} on fit in one block: at most BLOCK_ITEMS and never past
+     * the end of the buffer holding the item, chunks holding a whole number of items.
+     */
+    private long blockItemsAt(long index) {
+        final long typeSize = itemType.getTypeSize();
+        long count = Math.min(BLOCK_ITEMS, getArraySize() - index);
+        return Math.min(count, bytesAfter(index * typeSize) / typeSize);
     }
 
-    public long getInt16(int position) {
-        return (long) byteBuffer.getShort(position);
+    /**
+     * The bytes of the buffer holding the item at {@code index}, starting at that item.
+     */
+    private ByteBuffer itemsAt(long index) {
+        long position = index * itemType.getTypeSize();
+        ByteBuffer buffer = bufferAt(position).duplicate();
+        buffer.position(offsetAt(position));
+        return buffer.slice();
     }
 
-    public long getUInt16(int position) {
-        return (long) (byteBuffer.getShort(position) & 0xffff);
+    private void readLongs(long index, long[] block, int count) {
+        ByteBuffer items = itemsAt(index);
+        switch (itemType) {
+            case INT8:
+                for (int i = 0; i < count; i++) {
+                    block[i] = items.get(i);
+                }
+                break;
+            case UINT8:
+                for (int i = 0; i < count; i++) {
+                    block[i] = items.get(i) & 0xffL;
+                }
+                break;
+            case INT16: {
+                ShortBuffer shorts = items.asShortBuffer();
+                for (int i = 0; i < count; i++) {
+                    block[i] = shorts.get(i);
+                }
+                break;
+            }
+            case UINT16: {
+                ShortBuffer shorts = items.asShortBuffer();
+                for (int i = 0; i < count; i++) {
+                    block[i] = shorts.get(i) & 0xffffL;
+                }
+                break;
+            }
+            case INT32: {
+                IntBuffer ints = items.asIntBuffer();
+                for (int i = 0; i < count; i++) {
+                    block[i] = ints.get(i);
+                }
+                break;
+            }
+            case UINT32: {
+                IntBuffer ints = items.asIntBuffer();
+                for (int i = 0; i < count; i++) {
+                    block[i] = ints.get(i) & 0xffffffffL;
+                }
+                break;
+            }
+            case INT64:
+            case UINT64:
+                items.asLongBuffer().get(0, block, 0, count);
+                break;
+            case FLOAT32: {
+                FloatBuffer floats = items.asFloatBuffer();
+                for (int i = 0; i < count; i++) {
+                    block[i] = (long) floats.get(i);
+                }
+                break;
+            }
+            case FLOAT64: {
+                DoubleBuffer doubles = items.asDoubleBuffer();
+                for (int i = 0; i < count; i++) {
+                    block[i] = (long) doubles.get(i);
+                }
+                break;
+            }
+            default:
+                throw new ShouldNotBeHereException();
+        }
     }
 
-    public void putInt16(int position, long value) {
-        byteBuffer.putShort(position, (short) value);
+    private void readDoubles(long index, double[] block, int count) {
+        switch (itemType) {
+            case FLOAT32: {
+                FloatBuffer floats = itemsAt(index).asFloatBuffer();
+                for (int i = 0; i < count; i++) {
+                    block[i] = floats.get(i);
+                }
+                break;
+            }
+            case FLOAT64:
+                itemsAt(index).asDoubleBuffer().get(0, block, 0, count);
+                break;
+            case UINT64: {
+                LongBuffer longs = itemsAt(index).asLongBuffer();
+                for (int i = 0; i < count; i++) {
+                    long value = longs.get(i);
+                    block[i] = value >= 0 ? value : (double) (value >>> 1) * 2.0 + (value & 1);
+                }
+                break;
+            }
+            default: {
+                long[] longs = new long[count];
+                readLongs(index, longs, count);
+                for (int i = 0; i < count; i++) {
+                    block[i] = longs[i];
+                }
+            }
+        }
+    }
+
+    /*
+     * The writers below expect the caller to have called unshare() before the first block.
+     */
+
+    private void writeLongs(long index, long[] block, int count) {
+        ByteBuffer items = itemsAt(index);
+        switch (itemType) {
+            case INT8:
+            case UINT8:
+                for (int i = 0; i < count; i++) {
+                    items.put(i, (byte) block[i]);
+                }
+                break;
+            case INT16:
+            case UINT16: {
+                ShortBuffer shorts = items.asShortBuffer();
+                for (int i = 0; i < count; i++) {
+                    shorts.put(i, (short) block[i]);
+                }
+                break;
+            }
+            case INT32:
+            case UINT32: {
+                IntBuffer ints = items.asIntBuffer();
+                for (int i = 0; i < count; i++) {
+                    ints.put(i, (int) block[i]);
+                }
+                break;
+            }
+            case INT64:
+            case UINT64:
+                items.asLongBuffer().put(0, block, 0, count);
+                break;
+            case FLOAT32: {
+                FloatBuffer floats = items.asFloatBuffer();
+                for (int i = 0; i < count; i++) {
+                    floats.put(i, (float) block[i]);
+                }
+                break;
+            }
+            case FLOAT64: {
+                DoubleBuffer doubles = items.asDoubleBuffer();
+                for (int i = 0; i < count; i++) {
+                    doubles.put(i, (double) block[i]);
+                }
+                break;
+            }
+            default:
+                throw new ShouldNotBeHereException();
+        }
+    }
+
+    private void writeDoubles(long index, double[] block, int count) {
+        switch (itemType) {
+            case FLOAT32: {
+                FloatBuffer floats = itemsAt(index).asFloatBuffer();
+                for (int i = 0; i < count; i++) {
+                    floats.put(i, (float) block[i]);
+                }
+                break;
+            }
+            case FLOAT64:
+                itemsAt(index).asDoubleBuffer().put(0, block, 0, count);
+                break;
+            default: {
+                long[] longs = new long[count];
+                for (int i = 0; i < count; i++) {
+                    longs[i] = (long) block[i];
+                }
+                writeLongs(index, longs, count);
+            }
+        }
+    }
+
+    public long getInt8(long position) {
+        return (long) bufferAt(position).get(offsetAt(position));
+    }
+
+    public long getUInt8(long position) {
+        return ((long) (bufferAt(position).get(offsetAt(position)) & (long) 0xff));
+    }
+
+    public void putInt8(long position, long value) {
+        writableBufferAt(position).put(offsetAt(position), (byte) value);
     }
 
-    public void putUInt16(int position, long value) {
-        byteBuffer.putShort(position, (short) (value & 0xffff));
+    public void putUInt8(long position, long value) {
+        writableBufferAt(position).put(offsetAt(position), (byte) (value & 0xff));
     }
 
-    public long getInt32(int position) {
-        return (long) byteBuffer.getInt(position);
+    public long getInt16(long position) {
+        return (long) bufferAt(position).getShort(offsetAt(position));
     }
 
-    public long getUInt32(int position) {
-        return ((long) byteBuffer.getInt(position) & 0xffffffffL);
+    public long getUInt16(long position) {
+        return (long) (bufferAt(position).getShort(offsetAt(position)) & 0xffff);
     }
 
-    public void putInt32(int position, long value) {
-        byteBuffer.putInt(position, (int) value);
+    public void putInt16(long position, long value) {
+        writableBufferAt(position).putShort(offsetAt(position), (short) value);
     }
 
-    public void putUInt32(int position, long value) {
-        byteBuffer.putInt(position, (int) (value & 0xffffffffL));
+    public void putUInt16(long position, long value) {
+        writableBufferAt(position).putShort(offsetAt(position), (short) (value & 0xffff));
     }
 
-    public long getInt64(int position) {
-        return byteBuffer.getLong(position);
+    public long getInt32(long position) {
+        return (long) bufferAt(position).getInt(offsetAt(position));
     }
 
-    public long getUInt64(int position) throws ArithmeticException {
-        long value = byteBuffer.getLong(position);
+    public long getUInt32(long position) {
+        return ((long) bufferAt(position).getInt(offsetAt(position)) & 0xffffffffL);
+    }
+
+    public void putInt32(long position, long value) {
+        writableBufferAt(position).putInt(offsetAt(position), (int) value);
+    }
+
+    public void putUInt32(long position, long value) {
+        writableBufferAt(position).putInt(offsetAt(position), (int) (value & 0xffffffffL));
+    }
+
+    public long getInt64(long position) {
+        return bufferAt(position).getLong(offsetAt(position));
+    }
+
+    public long getUInt64(long position) throws ArithmeticException {
+        long value = bufferAt(position).getLong(offsetAt(position));
         if (value < 0) {
             throw new ArithmeticException();
         }
         return value;
     }
 
-    public IoBigInteger getUInt64AsBigInteger(int position) {
+    public IoBigInteger getUInt64AsBigInteger(long position) {
         byte[] buffer = new byte[9];
-        int oldPosition = byteBuffer.position();
-        byteBuffer.position(position);
-        byteBuffer.get(buffer, 1, 8);
-        byteBuffer.position(oldPosition);
+        getBytes(position, buffer, 1, 8);
         BigInteger bigInteger = new BigInteger(buffer);
         return IoLanguage.getState().createBigInteger(bigInteger);
     }
 
-    public void putInt64(int position, long value) {
-        byteBuffer.putLong(position, value);
+    public void putInt64(long position, long value) {
+        writableBufferAt(position).putLong(offsetAt(position), value);
     }
 
-    public void putUInt64(int position, long value) {
-        if (value >= 0) {
-            byteBuffer.putLong(position, value);
+    public void putUInt64(long position, long value) {
+        if (value < 0) {
+            throw negativeUInt64(value);
         }
+        writableBufferAt(position).putLong(offsetAt(position), value);
     }
 
-    public void putUInt64(int position, double value) {
-        if (value >= 0.0) {
-            throw new NotImplementedException();
+    /**
+     * Stores the integral part of {@code value}; values from 2^63 on are stored in the sign bit and
+     * values beyond 2^64 - 1 saturate.
+     */
+    public void putUInt64(long position, double value) {
+        if (!(value >= 0.0)) {
+            throw negativeUInt64(value);
         }
+        final long bits = value < UINT64_SIGN_BIT ? (long) value : (long) (value - UINT64_SIGN_BIT) | Long.MIN_VALUE;
+        writableBufferAt(position).putLong(offsetAt(position), bits);
     }
 
-    public double getFloat32(int position) {
-        return (double) byteBuffer.getFloat(position);
+    @TruffleBoundary
+    private static IoLanguageException negativeUInt64(Object value) {
+        return new IoLanguageException("Cannot store " + value + " as uint64", null);
     }
 
-    public void putFloat32(int position, double value) {
+    public double getFloat32(long position) {
+        return (double) bufferAt(position).getFloat(offsetAt(position));
+    }
+
+    public void putFloat32(long position, double value) {
         float v = (float) value;
-        byteBuffer.putFloat(position, v);
+        writableBufferAt(position).putFloat(offsetAt(position), v);
+    }
+
+    public double getFloat64(long position) {
+        return (double) bufferAt(position).getDouble(offsetAt(position));
     }
 
-    public double getFloat64(int position) {
-        return (double) byteBuffer.getDouble(position);
+    public void putFloat64(long position, double value) {
+        writableBufferAt(position).putDouble(offsetAt(position), value);
     }
 
-    public void putFloat64(int position, double value) {
-        byteBuffer.putDouble(position, value);
+    /**
+     * The items as a string, decoded from UTF-8. On the heap the string is built on the bytes
+     * themselves without copying them, and it is kept until the sequence next changes, which
+     * copies the bytes then instead. Off-heap sequences larger than a heap array cannot be viewed
+     * as a string.
+     */
+    @TruffleBoundary
+    public TruffleString toTruffleString() {
+        if (stringView == null) {
+            final TruffleString utf8;
+            if (chunks == null) {
+                utf8 = TruffleString.fromByteArrayUncached(byteBuffer.array(), 0, (int) byteSize, TruffleString.Encoding.UTF_8, false);
+                shared = true;
+            } else {
+                if (byteSize > MAX_HEAP_BYTES) {
+                    throw new IoLanguageException("Sequence of " + byteSize + " bytes is too large to be used as a string", null);
+                }
+                byte[] bytes = new byte[(int) byteSize];
+                getBytes(0, bytes, 0, bytes.length);
+                utf8 = TruffleString.fromByteArrayUncached(bytes, TruffleString.Encoding.UTF_8, false);
+            }
+            stringView = utf8.switchEncodingUncached(IoLanguage.STRING_ENCODING);
+        }
+        return stringView;
     }
 
     @Override
     public String toString() {
         // UCS reader : http://www.java2s.com/Code/Java/I18N/ReaderforUCS2andUCS4encodingsieencodingsfromISO10646UCS24.htm
-        return StandardCharsets.UTF_8.decode(byteBuffer).toString();
+        return toTruffleString().toJavaStringUncached();
+    }
+
+    @ExportMessage
+    Object toDisplayString(boolean allowSideEffects) {
+        return toTruffleString();
     }
 
     @Override
@@ -339,20 +1229,21 @@ public class IoSequence extends IoObject {
 
     @ExportMessage(name = "isArrayElementReadable")
     @ExportMessage(name = "isArrayElementModifiable")
-    @ExportMessage(name = "isArrayElementInsertable")
-    boolean isValidIndex(long index) {
-        return index >= 0;
+    boolean isExistingIndex(long index) {
+        return index >= 0 && index < getArraySize();
+    }
+
+    @ExportMessage
+    boolean isArrayElementInsertable(long index) {
+        return index >= getArraySize() && index < getMaxArraySize();
     }
 
     @ExportMessage
     Object readArrayElement(long index) throws InvalidArrayIndexException {
-        if (!isValidIndex(index)) {
+        if (!isExistingIndex(index)) {
             throw InvalidArrayIndexException.create(index);
         }
-        if (index >= getArraySize()) {
-            setArraySize((int) index + 1);
-        }
-        int position = (int) index * itemType.getTypeSize();
+        long position = index * itemType.getTypeSize();
         switch (itemType) {
             case INT8:
                 return getInt8(position);
@@ -385,13 +1276,15 @@ public class IoSequence extends IoObject {
 
     @ExportMessage
     public void writeArrayElement(long index, Object value) throws InvalidArrayIndexException {
-        if (!isValidIndex(index)) {
-            throw InvalidArrayIndexException.create(index);
-        }
         if (index >= getArraySize()) {
-            setArraySize((int) index + 1);
+            if (!isArrayElementInsertable(index)) {
+                throw InvalidArrayIndexException.create(index);
+            }
+            setArraySize(index + 1);
+        } else if (index < 0) {
+            throw InvalidArrayIndexException.create(index);
         }
-        int position = (int) index * itemType.getTypeSize();
+        long position = index * itemType.getTypeSize();
         final long valueAsLong;
         final double valueAsDouble;
         if (value instanceof Long) {
@@ -401,7 +1294,7 @@ public class IoSequence extends IoObject {
             valueAsLong = ((Double) value).longValue();
             valueAsDouble = ((Double) value).doubleValue();
         } else {
-            throw new NotImplementedException();
+            throw IoLanguageException.typeError(null, value);
         }
         switch (itemType) {
             case INT8:
@@ -426,7 +1319,11 @@ public class IoSequence extends IoObject {
                 putInt64(position, valueAsLong);
                 break;
             case UINT64:
-                putUInt64(position, valueAsLong);
+                if (value instanceof Double) {
+                    putUInt64(position, valueAsDouble);
+                } else {
+                    putUInt64(position, valueAsLong);
+                }
                 break;
             case FLOAT32:
                 putFloat32(position, valueAsDouble);
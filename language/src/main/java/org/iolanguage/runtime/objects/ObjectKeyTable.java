@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * list (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.runtime.objects;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Open-addressing table for the object keys of an {@link IoMap}, hashed and compared as its
+ * {@link Equivalence} says: strings by content, any other object by identity. The hash code of
+ * every key is kept next to it, so probing only compares keys when hashes match and growing never
+ * rehashes a key. Long keys have their own {@link LongKeyTable}.
+ */
+final class ObjectKeyTable {
+
+    /**
+     * How the keys of a table are hashed and compared.
+     */
+    enum Equivalence {
+        IDENTITY {
+            @Override
+            int hash(Object key) {
+                return System.identityHashCode(key);
+            }
+
+            @Override
+            boolean equals(Object stored, Object key) {
+                return stored == key;
+            }
+        },
+        CONTENT {
+            @Override
+            int hash(Object key) {
+                return key.hashCode();
+            }
+
+            @Override
+            boolean equals(Object stored, Object key) {
+                return stored == key || stored.equals(key);
+            }
+        };
+
+        abstract int hash(Object key);
+
+        abstract boolean equals(Object stored, Object key);
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Equivalence equivalence;
+    private Object[] keys;
+    private int[] hashes;
+    private Object[] values;
+    private int size;
+    private boolean shared;
+
+    ObjectKeyTable(Equivalence equivalence) {
+        this.equivalence = equivalence;
+        this.keys = new Object[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    @TruffleBoundary
+    Object get(Object key) {
+        final int hash = equivalence.hash(key);
+        final int mask = values.length - 1;
+        int index = mix(hash) & mask;
+        Object value;
+        while ((value = values[index]) != null) {
+            if (matches(index, key, hash)) {
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    Object put(Object key, Object value) {
+        assert key != null && value != null;
+        if (shared) {
+            unshare();
+        }
+        final int hash = equivalence.hash(key);
+        final int mask = values.length - 1;
+        int index = mix(hash) & mask;
+        Object previous;
+        while ((previous = values[index]) != null) {
+            if (matches(index, key, hash)) {
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        hashes[index] = hash;
+        values[index] = value;
+        if (++size * 2 > values.length) {
+            grow();
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    Object remove(Object key) {
+        if (shared) {
+            unshare();
+        }
+        final int hash = equivalence.hash(key);
+        final int mask = values.length - 1;
+        int index = mix(hash) & mask;
+        Object previous;
+        while ((previous = values[index]) != null) {
+            if (matches(index, key, hash)) {
+                shiftBack(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private boolean matches(int index, Object key, int hash) {
+        return hashes[index] == hash && equivalence.equals(keys[index], key);
+    }
+
+    /**
+     * Hands out the backing arrays for iteration. The next change to the table copies them first, so
+     * an iteration in progress never sees entries move.
+     */
+    Object[] sharedKeys() {
+        shared = true;
+        return keys;
+    }
+
+    Object[] sharedValues() {
+        shared = true;
+        return values;
+    }
+
+    @TruffleBoundary
+    private void unshare() {
+        keys = keys.clone();
+        values = values.clone();
+        shared = false;
+    }
+
+    private void shiftBack(int hole) {
+        final int mask = values.length - 1;
+        int index = (hole + 1) & mask;
+        while (values[index] != null) {
+            int home = mix(hashes[index]) & mask;
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                keys[hole] = keys[index];
+                hashes[hole] = hashes[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+        keys = new Object[oldValues.length * 2];
+        hashes = new int[oldValues.length * 2];
+        values = new Object[oldValues.length * 2];
+        final int mask = values.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = mix(oldHashes[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                hashes[index] = oldHashes[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
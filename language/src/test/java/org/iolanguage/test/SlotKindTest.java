@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+
+import org.graalvm.polyglot.Context;
+import org.iolanguage.runtime.IoOptions;
+import org.iolanguage.runtime.objects.IoLocals;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlotKindTest {
+
+    private static FrameDescriptor createFrameDescriptor(IoLocals.SlotIndex slotIndex, int slotCount) {
+        final FrameDescriptor.Builder builder = FrameDescriptor.newBuilder();
+        for (int i = 0; i < slotCount; i++) {
+            builder.addSlot(FrameSlotKind.Illegal, "slot" + i, null);
+        }
+        builder.info(slotIndex);
+        return builder.build();
+    }
+
+    @Test
+    public void testSlotsOnlyGeneralize() {
+        IoLocals.SlotIndex slotIndex = IoLocals.SlotIndex.create(Arrays.asList("slot0"));
+        FrameDescriptor frameDescriptor = createFrameDescriptor(slotIndex, 1);
+        Assert.assertEquals(FrameSlotKind.Long, IoLocals.generalizeSlotKind(frameDescriptor, 0, FrameSlotKind.Long));
+        Assert.assertEquals(FrameSlotKind.Object, IoLocals.generalizeSlotKind(frameDescriptor, 0, FrameSlotKind.Double));
+        Assert.assertEquals(FrameSlotKind.Object, IoLocals.generalizeSlotKind(frameDescriptor, 0, FrameSlotKind.Long));
+    }
+
+    @Test
+    public void testKindChangesStopGrowing() {
+        IoLocals.SlotIndex slotIndex = IoLocals.SlotIndex.create(Arrays.asList("slot0", "slot1"));
+        FrameDescriptor frameDescriptor = createFrameDescriptor(slotIndex, 2);
+        for (int i = 0; i < 100; i++) {
+            IoLocals.generalizeSlotKind(frameDescriptor, 0, i % 2 == 0 ? FrameSlotKind.Long : FrameSlotKind.Double);
+            IoLocals.generalizeSlotKind(frameDescriptor, 1, FrameSlotKind.Long);
+        }
+        // slot0: Illegal to Long to Object, slot1: Illegal to Long
+        Assert.assertEquals(3, slotIndex.getKindChanges());
+    }
+
+    private static String runWithReport(String source) {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        try (Context context = Context.newBuilder("io").allowExperimentalOptions(true).option("io." + IoOptions.IO_SLOT_KIND_REPORT_NAME, "true").err(err).build()) {
+            context.eval("io", source);
+        }
+        return err.toString();
+    }
+
+    @Test
+    public void testReportStaysFlatInMonomorphicLoop() {
+        String loop = "sum := method(n, s := 0; i := 0; while(i < n, s = s + i; i = i + 1); s)\n";
+        String shortRun = runWithReport(loop + "sum(10)\n");
+        String longRun = runWithReport(loop + "sum(10000)\n");
+        Assert.assertTrue(shortRun, shortRun.contains("Slot kind changes: "));
+        Assert.assertEquals(shortRun, longRun);
+    }
+
+    @Test
+    public void testReportShowsPolymorphicSlots() {
+        String mixed = runWithReport("mix := method(n, x := 0; i := 0; while(i < n, x = if(i < 5, 1, 1.5); i = i + 1); x)\nmix(10)\n");
+        String plain = runWithReport("mix := method(n, x := 0; i := 0; while(i < n, x = 1; i = i + 1); x)\nmix(10)\n");
+        Assert.assertNotEquals(plain, mixed);
+    }
+}
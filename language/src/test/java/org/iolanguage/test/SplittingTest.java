@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.nodes.NodeVisitor;
+import com.oracle.truffle.api.source.Source;
+
+import org.graalvm.polyglot.Context;
+import org.iolanguage.IoLanguage;
+import org.iolanguage.nodes.literals.BlockLiteralNode;
+import org.iolanguage.nodes.literals.FunctionLiteralNode;
+import org.iolanguage.nodes.literals.MethodLiteralNode;
+import org.iolanguage.nodes.root.IoRootNode;
+import org.iolanguage.parser.IoLanguageNodeVisitor;
+import org.iolanguage.runtime.IoOptions;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SplittingTest {
+
+    private static final String SOURCE = "" +
+            "o := Object clone do(inc := method(x, x + 1))\n" +
+            "twice := block(y, y * 2)\n" +
+            "twice(o inc(1))\n";
+
+    private static List<IoRootNode> parseRoots(boolean splitting) {
+        try (Context context = Context.newBuilder(IoLanguage.ID).allowExperimentalOptions(true)
+                .option(IoLanguage.ID + "." + IoOptions.IO_SPLITTING_NAME, String.valueOf(splitting)).build()) {
+            context.initialize(IoLanguage.ID);
+            context.enter();
+            try {
+                Source source = Source.newBuilder(IoLanguage.ID, SOURCE, "splitting.io").build();
+                RootCallTarget main = new IoLanguageNodeVisitor().parseIO(IoLanguage.get(null), source);
+                List<IoRootNode> roots = new ArrayList<>();
+                collectRoots((IoRootNode) main.getRootNode(), roots);
+                return roots;
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    private static void collectRoots(IoRootNode rootNode, List<IoRootNode> roots) {
+        if (roots.contains(rootNode)) {
+            return;
+        }
+        roots.add(rootNode);
+        NodeUtil.forEachChild(rootNode, new NodeVisitor() {
+            @Override
+            public boolean visit(Node node) {
+                if (node instanceof FunctionLiteralNode) {
+                    collectRoots(((FunctionLiteralNode) node).getValue(), roots);
+                } else if (node instanceof MethodLiteralNode) {
+                    collectRoots(((MethodLiteralNode) node).getValue(), roots);
+                } else if (node instanceof BlockLiteralNode) {
+                    collectRoots(((BlockLiteralNode) node).getValue(), roots);
+                }
+                return NodeUtil.forEachChild(node, this);
+            }
+        });
+    }
+
+    @Test
+    public void testEveryRootFollowsTheOption() {
+        for (boolean splitting : new boolean[] { true, false }) {
+            List<IoRootNode> roots = parseRoots(splitting);
+            // the script, the do body, the method and the block
+            Assert.assertEquals(4, roots.size());
+            for (IoRootNode rootNode : roots) {
+                Assert.assertEquals(rootNode.getSourceSection().toString(), splitting, rootNode.isCloningAllowed());
+            }
+        }
+    }
+
+    @Test
+    public void testResultsDoNotDependOnTheOption() {
+        for (boolean splitting : new boolean[] { true, false }) {
+            try (Context context = Context.newBuilder(IoLanguage.ID).allowExperimentalOptions(true)
+                    .option(IoLanguage.ID + "." + IoOptions.IO_SPLITTING_NAME, String.valueOf(splitting)).build()) {
+                Assert.assertEquals(4, context.eval(IoLanguage.ID, SOURCE).asLong());
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022, 2023, Guillermo Adrián Molina. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.iolanguage.test;
+
+import java.nio.charset.StandardCharsets;
+
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StringEncodingTest {
+    private static final String NON_ASCII = "a\u00f1o 2023 \u2192 ok";
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = Context.create("io");
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    private static String literal(String text) {
+        return "\"" + text + "\"";
+    }
+
+    @Test
+    public void testNonAsciiStringsReachTheHostUnchanged() {
+        Assert.assertEquals(NON_ASCII, context.eval("io", literal(NON_ASCII)).asString());
+        Assert.assertEquals(NON_ASCII, context.eval("io", literal("a\u00f1o 2023") + " .. " + literal(" \u2192 ok")).asString());
+        Assert.assertEquals(NON_ASCII, context.eval("io", literal(NON_ASCII) + " asMutable").toString());
+    }
+
+    @Test
+    public void testSizeAndAtCountBytes() {
+        byte[] utf8 = NON_ASCII.getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(utf8.length, context.eval("io", literal(NON_ASCII) + " size").asLong());
+        for (int i = 0; i < utf8.length; i++) {
+            Assert.assertEquals(utf8[i] & 0xff, context.eval("io", literal(NON_ASCII) + " at(" + i + ")").asLong());
+        }
+    }
+
+    @Test
+    public void testForeachVisitsEveryByte() {
+        long count = context.eval("io", "n := 0; " + literal(NON_ASCII) + " foreach(c, n = n + 1); n").asLong();
+        Assert.assertEquals(NON_ASCII.getBytes(StandardCharsets.UTF_8).length, count);
+    }
+}
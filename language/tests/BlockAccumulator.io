@@ -0,0 +1,27 @@
+accumulateLongs := method(n,
+  total := 0
+  add := block(v, total = total + v)
+  i := 0
+  while(i < n,
+    add(2)
+    i := i + 1
+  )
+  total
+)
+
+rename := method(n,
+  total := 0
+  add := block(v, total = total + v)
+  set := block(v, total = v)
+  i := 0
+  while(i < n,
+    add(1)
+    i := i + 1
+  )
+  total println
+  set("many")
+  total
+)
+
+accumulateLongs(100) println
+rename(100) println
@@ -0,0 +1,21 @@
+o := Object clone
+o x := 2
+o name := method(call message name)
+o self2 := method(call target x)
+o escape := method(y, call)
+o peek := method(c, c sender x)
+
+o name println
+o self2 println
+c := o escape(5)
+c message name println
+c sender x println
+c target x println
+o peek(c) println
+c getSlot("message") name println
+Number twice := method(call target * 2)
+21 twice println
+c foo := "extra"
+c foo println
+c target x println
+c message name println
@@ -0,0 +1,26 @@
+l := list(1, 2, 3)
+m := Map clone
+m atPut("a", 40)
+s := "abc"
+
+sum := method(n,
+  i := 0
+  total := 0
+  while(i < n,
+    l append(i)
+    e := l at(i)
+    size := l getSize
+    a := m at("a")
+    c := s at(0)
+    total := total + e + size + a + c
+    i := i + 1
+  )
+  total
+)
+
+sum(100) println
+l getSize println
+
+List at := method(i, 7)
+l at(0) println
+sum(2) println
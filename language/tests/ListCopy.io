@@ -0,0 +1,18 @@
+e := List clone
+e type println
+e getSize println
+e append(1)
+e println
+List clone getSize println
+
+s := Sequence clone setItemType("int32")
+s atPut(0, 7)
+s atPut(1, 8)
+m := List clone copy(s)
+m println
+m append(9)
+m println
+s size println
+m copy("ab" asMutable) println
+m copy(list("x", "y")) println
+m copy(Sequence clone) getSize println
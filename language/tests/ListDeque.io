@@ -0,0 +1,59 @@
+queue := list()
+i := 0
+while(i < 20,
+  queue append(i)
+  i := i + 1
+)
+sum := 0
+while(queue getSize > 0,
+  sum := sum + queue removeFirst
+)
+sum println
+queue removeFirst println
+queue pop println
+
+deque := list(3, 4)
+deque prepend(2) prepend(1) prepend(0)
+deque println
+deque append(5)
+deque pop println
+deque removeFirst println
+deque println
+
+deque atInsert(2, 99) println
+deque atInsert(0, -1) println
+deque atInsert(6, 100) println
+deque atInsert(1, "one") println
+deque pop println
+deque removeFirst println
+deque println
+
+i := 0
+while(i < 50,
+  deque prepend(i)
+  deque removeFirst
+  deque append(i)
+  i := i + 1
+)
+deque getSize println
+deque at(0) println
+deque at(deque getSize - 1) println
+
+big := list()
+i := 0
+while(i < 100,
+  big prepend(i)
+  i := i + 1
+)
+big at(0) println
+big at(99) println
+i := 0
+while(i < 60,
+  big removeFirst
+  big append(i)
+  i := i + 1
+)
+big getSize println
+big at(0) println
+big at(39) println
+big at(40) println
@@ -0,0 +1,42 @@
+l := list(1, 2, 3, 4, 5)
+s := l slice(1, 4)
+s println
+l slice(2) println
+l slice(-2) println
+l slice(1, -1) println
+l slice(4, 2) println
+
+s atPut(0, 20)
+s println
+l println
+l atPut(3, 40)
+s println
+l println
+
+c := l itemCopy
+c append(6)
+c println
+l println
+r := l slice(1)
+r removeFirst println
+r pop println
+r println
+l println
+
+o := list("a", "b", "c") slice(1)
+o prepend("z") println
+
+m := List clone
+m copy(l)
+m append(7)
+m println
+l println
+
+count := method(lst, if(lst getSize == 0, 0, 1 + count(lst slice(1))))
+big := list()
+i := 0
+while(i < 200,
+  big append(i)
+  i := i + 1
+)
+count(big) println
@@ -0,0 +1,29 @@
+longs := list(1, 2, 3)
+i := 0
+while(i < 5,
+  longs append(i * 10)
+  i := i + 1
+)
+longs println
+longs atPut(0, 7) println
+longs at(7) println
+longs getSize println
+
+doubles := list()
+doubles append(1.5) append(2.5)
+doubles println
+doubles atPut(1, 0.25) at(1) println
+
+mixed := list(1, 2)
+mixed append(2.5)
+mixed append("three")
+mixed println
+mixed foreach(v, v println)
+
+sparse := list(1)
+sparse atPut(3, 4)
+sparse println
+
+sum := 0
+longs foreach(v, sum := sum + v)
+sum println
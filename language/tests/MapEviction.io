@@ -0,0 +1,35 @@
+lru := Map clone setMaxSize(3) setEvictionPolicy("lru")
+lru atPut("a", 1) atPut("b", 2) atPut("c", 3)
+lru at("a")
+lru atPut("d", 4)
+lru hasKey("a") println
+lru hasKey("b") println
+lru hasKey("c") println
+lru hasKey("d") println
+lru keys getSize println
+lfu := Map clone setEvictionPolicy("lfu") setMaxSize(3)
+lfu atPut(1, "one") atPut(2, "two") atPut(3, "three")
+lfu at(1)
+lfu at(1)
+lfu at(3)
+lfu atPut(4, "four")
+lfu hasKey(2) println
+lfu atPut(5, "five")
+lfu hasKey(4) println
+lfu hasKey(1) println
+lfu hasKey(3) println
+lfu at(5) println
+big := Map clone
+i := 0
+while(i < 10, big atPut(i, i); i = i + 1)
+big setMaxSize(4)
+big keys getSize println
+big setMaxSize(0)
+big atPut(100, 100)
+big keys getSize println
+ttl := Map clone setTimeToLive(0.5)
+ttl atPut("x", 1)
+ttl at("x") println
+System sleep(1)
+ttl at("x") println
+ttl keys getSize println
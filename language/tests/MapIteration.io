@@ -0,0 +1,29 @@
+m := Map clone
+i := 1
+while(i <= 10, m atPut(i, i * i); i = i + 1)
+m atPut("ten", 10)
+sum := 0
+m foreach(v, sum = sum + v)
+sum println
+keySum := 0
+valueSum := 0
+m foreach(k, v, if(k == "ten", valueSum = valueSum + v, keySum = keySum + k; valueSum = valueSum + v))
+keySum println
+valueSum println
+m keys getSize println
+m values getSize println
+total := 0
+m values foreach(v, total = total + v)
+total println
+m foreach(k, v, if(k != "ten", if(k > 5, m removeAt(k))))
+m keys getSize println
+m hasKey(6) println
+m hasKey(5) println
+m foreach(k, v, m atPut(k, 0))
+total = 0
+m values foreach(v, total = total + v)
+total println
+l := list(3, 4, 5)
+l foreach(i, v, (i * 10 + v) println)
+"ab" foreach(i, c, i println)
+Map clone keys getSize println
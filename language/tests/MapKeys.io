@@ -0,0 +1,60 @@
+m := Map clone
+m atPut(1, "one")
+m atPut("two", 2)
+m at(1) println
+m at("1") println
+m at("two") println
+m atPut("1", "uno")
+m at(1) println
+m atPut("01", "zero-one")
+m at(1) println
+m at("01") println
+m atPut(-7, "minus seven")
+m at("-7") println
+o := Object clone
+p := Object clone
+m atPut(o, "o")
+m atPut(p, "p")
+m at(o) println
+m at(p) println
+m hasKey(o) println
+m hasKey(Object clone) println
+m removeAt(o)
+m hasKey(o) println
+m at(o) println
+m atPut(nil, "nil")
+m at("nil") println
+m atPut(true, "yes")
+m at("true") println
+i := 0
+while(i < 100, m atPut(i * 3, i); i = i + 1)
+m at(297) println
+m at(298) println
+i = 0
+while(i < 100, if(i < 50, m removeAt(i * 3)); i = i + 1)
+m hasKey(294) println
+m at(297) println
+m hasKey("two") println
+m removeAt("two")
+m hasKey("two") println
+s := Map clone
+s atPut("42", "string")
+s atPut(7, "number")
+s keys foreach(k, (k type .. " " .. k) println)
+s at(42) println
+s at("7") println
+s atPut(42, "string again")
+s at("42") println
+s keys getSize println
+s foreach(k, v, if(k type != "Number", (k .. " " .. v) println))
+s removeAt(42)
+s hasKey("42") println
+s removeAt("7")
+s hasKey(7) println
+s keys getSize println
+e := Map clone setMaxSize(2)
+e atPut("5", "five")
+e atPut(5, "cinq")
+e keys getSize println
+(e keys at(0) == "5") println
+e at(5) println
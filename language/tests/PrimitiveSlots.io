@@ -0,0 +1,18 @@
+Number double := method(self * 2)
+sumDoubles := method(n,
+  s := 0
+  i := 0
+  while(i < n,
+    s := s + i double
+    i := i + 1
+  )
+  s
+)
+sumDoubles(10) println
+Number double := method(self * 3)
+sumDoubles(10) println
+1.5 double println
+Sequence shout := method(self .. "!")
+"abc" shout println
+Sequence shout := method(self .. "?")
+"abc" shout println
@@ -0,0 +1,22 @@
+A := Object clone
+A greet := method("A" println)
+B := A clone
+b := B clone
+
+sayHello := method(o,
+  i := 0
+  while(i < 3,
+    o greet
+    i := i + 1
+  )
+)
+
+sayHello(b)
+A greet := method("A again" println)
+sayHello(b)
+B greet := method("B" println)
+sayHello(b)
+B removeSlot("greet")
+sayHello(b)
+b greet := method("b" println)
+sayHello(b)
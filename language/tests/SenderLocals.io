@@ -0,0 +1,20 @@
+bump := method(
+  call sender count := call sender count + call sender step
+)
+
+run := method(n,
+  a := 1
+  b := 2
+  c := 3
+  step := 2
+  count := 0
+  i := 0
+  while(i < n,
+    bump
+    i := i + 1
+  )
+  count
+)
+
+run(100) println
+run(5) println
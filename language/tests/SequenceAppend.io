@@ -0,0 +1,34 @@
+s := Sequence clone
+s appendSeq("Hello") appendSeq(", ") appendSeq("world")
+s println
+s size println
+s append(33)
+s println
+t := Sequence clone
+t appendSeq(s) appendSeq(" ") appendSeq(42)
+t println
+t appendSeq(t)
+t size println
+t removeSlice(13, -1)
+t println
+t atInsertSeq(0, ">> ")
+t atInsertSeq(t size, " <<")
+t println
+t removeSlice(0, 2)
+t removeSlice(-3, 100)
+t println
+u := Sequence clone
+u atInsertSeq(0, "ac")
+u atInsertSeq(1, "b")
+u println
+i := 0
+r := Sequence clone
+while(i < 1000, r appendSeq("ab"); i = i + 1)
+r size println
+w := Sequence clone setItemType("int16")
+w append(-2) append(300)
+w atInsertSeq(1, t)
+w size println
+w at(0) println
+w at(1) println
+w at(14) println
@@ -1,5 +1,5 @@
 a := Sequence clone setItemType("int8")
-for(i, 0, 7, a atPut(i, -1))
+for(i, 0, 15, a atPut(i, -1))
 a setItemType("uint8")
 for(i, 0, 1, a at(i) println)
 a setItemType("uint16")
@@ -0,0 +1,19 @@
+s := Sequence clone
+for(i, 0, 999, s atPut(i, i))
+s size println
+s at(999) println
+s setSize(2)
+s size println
+s at(1) println
+s setSize(4)
+s at(3) println
+s atPut(5, 7)
+s size println
+s at(4) println
+s at(5) println
+w := Sequence clone setItemType("int32")
+for(i, 0, 99, w atPut(w size, i * 1000))
+w size println
+w at(99) println
+w setItemType("uint8")
+w size println
@@ -0,0 +1,5 @@
+s := Sequence clone setItemType("int16")
+s atPut(0, 300)
+s at(0) println
+s setItemType("int12")
+"unreachable" println
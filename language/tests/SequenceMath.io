@@ -0,0 +1,35 @@
+v := Sequence clone setItemType("float64")
+for(i, 0, 4, v atPut(i, i + 1))
+v sum println
+v mean println
+v min println
+v max println
+v dot(v) println
+v += 1
+v at(0) println
+v *= 2
+v at(4) println
+v -= 0.5
+v at(0) println
+v /= 2
+v at(0) println
+w := Sequence clone setItemType("float64")
+for(i, 0, 4, w atPut(i, 1))
+v += w
+v sum println
+v square
+v at(0) println
+v sqrt
+v at(0) println
+n := Sequence clone setItemType("int32")
+for(i, 0, 3, n atPut(i, i - 2))
+n sum println
+n min println
+n max println
+n mean println
+n *= 3
+n at(0) println
+n /= 4
+n at(0) println
+n dot(n) println
+Sequence clone setItemType("float32") min println
@@ -0,0 +1,7 @@
+s := Sequence clone setItemType("float64")
+s atPut(0, 3)
+s atPut(1, 4)
+s mean println
+s setSize(0)
+s mean println
+"unreachable" println
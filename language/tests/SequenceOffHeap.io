@@ -0,0 +1,24 @@
+s := Sequence clone
+s appendSeq("on the heap")
+s isOffHeap println
+s setOffHeap(true)
+s isOffHeap println
+s println
+i := 0
+while(i < 200, s appendSeq("0123456789"); i = i + 1)
+s size println
+s removeSlice(11, -1)
+s appendSeq(", now off it")
+s println
+s atInsertSeq(3, s)
+s println
+s setOffHeap(false)
+s isOffHeap println
+s println
+d := Sequence clone setOffHeap(true) setItemType("float64")
+for(i, 0, 99, d atPut(i, i / 2))
+d at(99) println
+d setItemType("int32")
+d size println
+d release
+d size println
@@ -0,0 +1,5 @@
+s := "abc" asMutable
+s setSize(2)
+s println
+s setSize(4000000000)
+"unreachable" println
@@ -0,0 +1,5 @@
+s := Sequence clone setItemType("uint8")
+s atPut(0, 65)
+s size println
+s atPut(1, list(1, 2))
+"unreachable" println
@@ -0,0 +1,9 @@
+u := Sequence clone setItemType("uint64")
+u atPut(0, 5)
+u atPut(1, 2.75)
+u atPut(2, 9223372036854775807.0 * 1.5)
+u at(0) println
+u at(1) println
+u at(2) println
+u atPut(3, -1)
+"unreachable" println
@@ -0,0 +1,19 @@
+s := "hello" asMutable
+s println
+(s == "hello") println
+("hello" == s) println
+t := s
+u := s .. " there"
+u println
+s appendSeq(" world")
+s println
+t println
+(s == "hello") println
+(s == "hello world") println
+(s == "hello world" asMutable) println
+v := s asMutable
+v atPut(0, 72)
+v println
+s println
+(s .. "!") println
+"año" asMutable size println
@@ -0,0 +1,10 @@
+o := Object clone
+o setSlot("a" .. "b", 3)
+o ab println
+o getSlot("ab") println
+name := "c"
+for(i, 1, 3, o setSlot(name .. i, i))
+o c2 println
+o getSlot("c" .. "3") println
+o ab = 4
+o getSlot("a" .. "b") println
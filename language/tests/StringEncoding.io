@@ -0,0 +1,16 @@
+"año" size println
+"año" at(1) println
+"año" foreach(i, c, if(i == 1, c println))
+n := 0
+"año" foreach(c, n = n + 1)
+n println
+(("a" .. "ñ" .. "o") == "año") println
+"→" size println
+"→" at(0) println
+"a→b" at(4) println
+("año" .. "→") size println
+"ñ" asMutable size println
+m := "ñ" asMutable
+m appendSeq("→")
+m size println
+(m == "ñ→") println
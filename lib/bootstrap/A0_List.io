@@ -176,9 +176,6 @@ list(1, 5, 7, 2) mapInPlace(v, v + 3)
         call delegateToMethod(self clone, "mapInPlace")
     )
 
-    //doc List copy(v) Replaces self with <tt>v</tt> list items. Returns self.
-    copy := method(v, self empty; self appendSeq(v); self)
-
     empty := method(self removeAll)
 
     isEmpty := method(size == 0)
@@ -187,9 +184,6 @@ list(1, 5, 7, 2) mapInPlace(v, v + 3)
     //doc List reverse Reverses the ordering of all the items of the receiver. Returns copy of receiver.
     reverse := method(itemCopy reverseInPlace)
 
-    //doc List itemCopy Returns a new list containing the items from the receiver.
-    itemCopy := method(List clone copy(self))
-
     //doc List sort Returns a new list containing the sorted items from the receiver.
     sort := method(self clone sortInPlace)
     /*doc List sortBy(aBlock)
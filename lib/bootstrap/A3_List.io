@@ -5,9 +5,6 @@ List do(
     //doc List average Returns the average of the items.
     average := method(self sum / self size)
 
-    //doc List removeFirst Returns the first item and removes it from the list. nil is returned if the list is empty.
-    removeFirst := method(if(self size != 0, removeAt(0), nil))
-
     //doc List removeLast Returns the last item and removes it from the list. nil is returned if the list is empty.
     removeLast := method(self pop)
 